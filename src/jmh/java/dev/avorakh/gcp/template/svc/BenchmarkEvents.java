@@ -0,0 +1,29 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+import java.util.UUID;
+
+final class BenchmarkEvents {
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * @param payloadSize approximate size of the JSON payload in bytes
+     */
+    static RequestEventDto newEvent(int payloadSize) {
+        ObjectNode payload = JsonNodeFactory.instance.objectNode();
+        int size = 2;
+        for (int field = 0; size < payloadSize; field++) {
+            String name = "field" + field;
+            String value = "value-" + field;
+            payload.put(name, value);
+            size += name.length() + value.length() + 6;
+        }
+        return new RequestEventDto(UUID.randomUUID().toString(), "BENCHMARK_EVENT", payload);
+    }
+}
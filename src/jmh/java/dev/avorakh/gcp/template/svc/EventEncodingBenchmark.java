@@ -0,0 +1,73 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.config.MessageEncodingProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time of the Pub/Sub message data per {@link MessageEncoding}. The {@code dataBytes} counter reports the
+ * size of the encoded data, the message size without attributes. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventEncodingBenchmark {
+
+    @Param({"JSON", "PROTOBUF", "AVRO"})
+    MessageEncoding encoding;
+
+    @Param({"128", "4096", "65536"})
+    int payloadSize;
+
+    PubsubMessageConverterImpl pubsubMessageConverter;
+    RequestEventDto event;
+
+    @Setup
+    public void setUp() {
+        pubsubMessageConverter = new PubsubMessageConverterImpl(
+                new ObjectMapper(),
+                OrderingKeyResolver.DISABLED,
+                new MessageEncodingResolver(
+                        new MessageEncodingProperties(encoding, null, null),
+                        new EventTopicRouter(new PubSubPublisherProperties("benchmark-events", null, null, null, null))));
+        event = BenchmarkEvents.newEvent(payloadSize);
+    }
+
+    @Benchmark
+    public PubsubMessage toPubsubMessage(DataSize dataSize) {
+        PubsubMessage message = pubsubMessageConverter.toPubsubMessage(event);
+        dataSize.dataBytes = message.getData().size();
+        return message;
+    }
+
+    /**
+     * Reported as the last encoded size instead of a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DataSize {
+
+        public long dataBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            dataBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PublishRetryProperties;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link EventPublisherImpl#publishEvent} with a Pub/Sub template and a repository that complete
+ * immediately, so only the application code of the publish path is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventPublishBenchmark {
+
+    private static final String TOPIC = "benchmark-topic";
+
+    @Param({"128", "4096", "65536"})
+    int payloadSize;
+
+    EventPublisherImpl eventPublisher;
+    RequestEventDto event;
+
+    @Setup
+    public void setUp() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var eventMetrics = new EventMetrics(meterRegistry);
+        eventPublisher = new EventPublisherImpl(
+                new StubPubSubPublisherTemplate(),
+                new PubsubMessageConverterImpl(new ObjectMapper()),
+                new PublishedEventPostProcessorChain(
+                        List.of(new PublishedEventPostProcessorImpl(stubRepository(), eventMetrics, eventMessageCache(meterRegistry))),
+                        Runnable::run),
+                eventMetrics,
+                new EventTopicRouter(new PubSubPublisherProperties(TOPIC, null, null, null, null)),
+                new PublishRetryExecutor(PublishRetryProperties.DISABLED, meterRegistry),
+                EventSpill.DISABLED
+        );
+        event = BenchmarkEvents.newEvent(payloadSize);
+    }
+
+    @Benchmark
+    public PublishedEventDto publishEvent() {
+        return eventPublisher.publishEvent(event).join();
+    }
+
+    private static EventMessageCache eventMessageCache(SimpleMeterRegistry meterRegistry) {
+        var eventMessageCache = new EventMessageCache(meterRegistry);
+        eventMessageCache.setMaximumSize(10_000);
+        eventMessageCache.setTtl(Duration.ofMinutes(5));
+        eventMessageCache.init();
+        return eventMessageCache;
+    }
+
+    private static EventMessageRepository stubRepository() {
+        return (EventMessageRepository) Proxy.newProxyInstance(
+                EventMessageRepository.class.getClassLoader(),
+                new Class<?>[]{EventMessageRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubEventMessageRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class StubPubSubPublisherTemplate extends PubSubPublisherTemplate {
+
+        private static final CompletableFuture<String> MESSAGE_ID = CompletableFuture.completedFuture("benchmark-message-id");
+
+        StubPubSubPublisherTemplate() {
+            super(topic -> {
+                throw new UnsupportedOperationException("Stub template does not create publishers");
+            });
+        }
+
+        @Override
+        public CompletableFuture<String> publish(String topic, PubsubMessage pubsubMessage) {
+            return MESSAGE_ID;
+        }
+    }
+}
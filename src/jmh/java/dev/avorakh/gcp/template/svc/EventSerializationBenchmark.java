@@ -0,0 +1,62 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request serialization work: the Pub/Sub message data and the {@code event_messages} row.
+ * Run with {@code ./gradlew jmh}; the GC profiler reports {@code gc.alloc.rate.norm} (bytes per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventSerializationBenchmark {
+
+    @Param({"128", "4096", "65536"})
+    int payloadSize;
+
+    PubsubMessageConverterImpl pubsubMessageConverter;
+    RequestEventDto event;
+    PublishedEventDto publishedEvent;
+
+    @Setup
+    public void setUp() {
+        pubsubMessageConverter = new PubsubMessageConverterImpl(new ObjectMapper());
+        event = BenchmarkEvents.newEvent(payloadSize);
+        publishedEvent = PublishedEventDto.builder()
+                .success(true)
+                .messageId(UUID.randomUUID().toString())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] toJsonBytes() {
+        return pubsubMessageConverter.toJsonBytes(event);
+    }
+
+    @Benchmark
+    public PubsubMessage toPubsubMessage() {
+        return pubsubMessageConverter.toPubsubMessage(event);
+    }
+
+    @Benchmark
+    public EventMessage toEventMessage() {
+        return EventMessageMapper.toEventMessage(event, publishedEvent);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.avorakh.gcp.template.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.avorakh.gcp.template.svc.EventAdmissionControl;
+
+@Configuration
+@EnableConfigurationProperties(EventAdmissionProperties.class)
+public class EventAdmissionConfig {
+
+    @Bean
+    public EventAdmissionControl eventAdmissionControl(EventAdmissionProperties properties, MeterRegistry meterRegistry) {
+        return new EventAdmissionControl(properties, meterRegistry);
+    }
+}
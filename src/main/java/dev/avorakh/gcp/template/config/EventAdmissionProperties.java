@@ -0,0 +1,27 @@
+package dev.avorakh.gcp.template.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of events accepted by {@code POST /events} that are not answered yet.
+ *
+ * @param enabled     {@code false} admits every request
+ * @param maxInFlight events in flight on this node
+ * @param eventTypes  events in flight per event type; types that are not listed are only limited by {@code maxInFlight}
+ * @param retryAfter  value of the {@code Retry-After} header of rejected requests
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public record EventAdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2000") int maxInFlight,
+        Map<String, Integer> eventTypes,
+        @DefaultValue("1s") Duration retryAfter) {
+
+    public EventAdmissionProperties {
+        eventTypes = eventTypes == null ? Map.of() : Map.copyOf(eventTypes);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.avorakh.gcp.template.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.avorakh.gcp.template.svc.DiskEventSpill;
+import dev.avorakh.gcp.template.svc.EventSpill;
+
+/**
+ * Without {@code app.spill.enabled} failed publishes are answered as failed, otherwise {@link DiskEventSpill} is used.
+ */
+@Configuration
+public class EventSpillConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.spill.enabled", havingValue = "false", matchIfMissing = true)
+    public EventSpill disabledEventSpill() {
+        return EventSpill.DISABLED;
+    }
+}
@@ -0,0 +1,28 @@
+package dev.avorakh.gcp.template.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import dev.avorakh.gcp.template.svc.MessageEncoding;
+
+/**
+ * Encoding of the Pub/Sub message data: by event type first, then by the topic the event is routed to, otherwise
+ * {@code defaultEncoding}.
+ *
+ * @param topics     encodings by topic name
+ * @param eventTypes encodings by exact event type
+ */
+@ConfigurationProperties(prefix = "app.pubsub.encoding")
+public record MessageEncodingProperties(MessageEncoding defaultEncoding,
+                                        Map<String, MessageEncoding> topics,
+                                        Map<String, MessageEncoding> eventTypes) {
+
+    public static final MessageEncodingProperties DEFAULT = new MessageEncodingProperties(null, null, null);
+
+    public MessageEncodingProperties {
+        defaultEncoding = defaultEncoding == null ? MessageEncoding.JSON : defaultEncoding;
+        topics = topics == null ? Map.of() : Map.copyOf(topics);
+        eventTypes = eventTypes == null ? Map.of() : Map.copyOf(eventTypes);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.avorakh.gcp.template.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Keeps the blocking post-processing (database writes) off the Pub/Sub publisher callback threads.
+ * <p>
+ * The executor is exposed through the {@code executor.*} meters with the {@code name=post-processing} tag;
+ * the {@code platform} type additionally reports its queue depth as {@code executor.queued} and the
+ * {@code virtual} type reports running tasks as {@code app.post-processing.in-flight}.
+ */
+@Configuration
+@EnableConfigurationProperties(PostProcessingExecutorProperties.class)
+public class PostProcessingExecutorConfig {
+
+    public static final String POST_PROCESSING_EXECUTOR = "postProcessingExecutor";
+
+    static final String EXECUTOR_NAME = "post-processing";
+    static final String IN_FLIGHT_METRIC = "app.post-processing.in-flight";
+
+    private static final String THREAD_NAME_PREFIX = "post-processing-";
+
+    @Bean(name = POST_PROCESSING_EXECUTOR)
+    public ExecutorService postProcessingExecutor(PostProcessingExecutorProperties properties, MeterRegistry meterRegistry) {
+        ExecutorService executor = switch (properties.type()) {
+            case VIRTUAL -> newVirtualThreadExecutor(meterRegistry);
+            case PLATFORM -> newPlatformThreadExecutor(properties);
+        };
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+    }
+
+    private ExecutorService newVirtualThreadExecutor(MeterRegistry meterRegistry) {
+        var inFlight = new AtomicInteger();
+        ThreadFactory virtualThreadFactory = Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory();
+        ThreadFactory trackingThreadFactory = task -> virtualThreadFactory.newThread(() -> {
+            inFlight.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, AtomicInteger::get)
+                .description("Post-processing tasks currently running on virtual threads")
+                .register(meterRegistry);
+
+        return Executors.newThreadPerTaskExecutor(trackingThreadFactory);
+    }
+
+    /**
+     * When the queue is full the task is rejected instead of running the blocking database write on the
+     * submitting Pub/Sub callback thread; the post-processing chain reports it as a failed stage.
+     */
+    private ExecutorService newPlatformThreadExecutor(PostProcessingExecutorProperties properties) {
+        return new ThreadPoolExecutor(
+                properties.threads(),
+                properties.threads(),
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(properties.queueCapacity()),
+                new CustomizableThreadFactory(THREAD_NAME_PREFIX),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,23 @@
+package dev.avorakh.gcp.template.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the executor that runs {@code PublishedEventPostProcessor} after a Pub/Sub publish completes.
+ *
+ * @param type          {@code virtual} starts a virtual thread per task, {@code platform} uses a fixed pool
+ * @param threads       pool size for the {@code platform} type
+ * @param queueCapacity queue capacity for the {@code platform} type
+ */
+@ConfigurationProperties(prefix = "app.post-processing.executor")
+public record PostProcessingExecutorProperties(
+        @DefaultValue("platform") Type type,
+        @DefaultValue("16") int threads,
+        @DefaultValue("10000") int queueCapacity) {
+
+    public enum Type {
+        VIRTUAL,
+        PLATFORM
+    }
+}
@@ -0,0 +1,17 @@
+package dev.avorakh.gcp.template.config;
+
+import com.google.cloud.spring.pubsub.support.PublisherCustomizer;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({PubSubPublisherProperties.class, MessageEncodingProperties.class})
+public class PubSubPublisherConfig {
+
+    @Bean
+    public PublisherCustomizer pubSubPublisherCustomizer(PubSubPublisherProperties properties) {
+        return new PubSubPublisherCustomizer(properties);
+    }
+}
@@ -0,0 +1,86 @@
+package dev.avorakh.gcp.template.config;
+
+import java.time.Duration;
+
+import com.google.api.gax.batching.BatchingSettings;
+import com.google.api.gax.batching.FlowControlSettings;
+import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
+import com.google.api.gax.core.InstantiatingExecutorProvider;
+import com.google.cloud.pubsub.v1.Publisher;
+import com.google.cloud.spring.pubsub.support.PublisherCustomizer;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Batching;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Compression;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.FlowControl;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.PublisherSettings;
+
+/**
+ * Applies {@link PubSubPublisherProperties} to every publisher created by the publisher factory. It runs after
+ * the {@code spring.cloud.gcp.pubsub.publisher.*} settings and always replaces their batching, flow control and
+ * compression: {@code app.pubsub.*} takes precedence, and its unset values fall back to the client library defaults,
+ * not to the Spring Cloud GCP properties.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PubSubPublisherCustomizer implements PublisherCustomizer {
+
+    static final long DEFAULT_ELEMENT_COUNT_THRESHOLD = 100L;
+    static final long DEFAULT_REQUEST_BYTE_THRESHOLD = 1000L;
+    static final Duration DEFAULT_DELAY_THRESHOLD = Duration.ofMillis(1);
+    static final long DEFAULT_COMPRESSION_BYTES_THRESHOLD = 240L;
+
+    PubSubPublisherProperties properties;
+
+    @Override
+    public void apply(Publisher.Builder publisherBuilder, String topic) {
+        PublisherSettings settings = properties.settingsFor(topic);
+        Compression compression = settings.compression();
+
+        BatchingSettings batchingSettings = toBatchingSettings(settings);
+        boolean compressionEnabled = Boolean.TRUE.equals(compression.enabled());
+
+        publisherBuilder
+                .setBatchingSettings(batchingSettings)
+                .setEnableCompression(compressionEnabled)
+                .setCompressionBytesThreshold(orDefault(compression.bytesThreshold(), DEFAULT_COMPRESSION_BYTES_THRESHOLD))
+                .setEnableMessageOrdering(properties.ordering().enabled());
+
+        if (settings.executorThreads() != null) {
+            publisherBuilder.setExecutorProvider(InstantiatingExecutorProvider.newBuilder()
+                                                         .setExecutorThreadCount(settings.executorThreads())
+                                                         .build());
+        }
+
+        log.info("Configured Pub/Sub publisher. topic:[{}], batching:[{}], compression:[{}], executorThreads:[{}], ordering:[{}].",
+                topic, batchingSettings, compressionEnabled, settings.executorThreads(), properties.ordering().enabled());
+    }
+
+    BatchingSettings toBatchingSettings(PublisherSettings settings) {
+        Batching batching = settings.batching();
+        FlowControl flowControl = settings.flowControl();
+
+        var flowControlSettings = FlowControlSettings.newBuilder()
+                .setMaxOutstandingElementCount(flowControl.maxOutstandingElementCount())
+                .setMaxOutstandingRequestBytes(flowControl.maxOutstandingRequestBytes())
+                .setLimitExceededBehavior(orDefault(flowControl.limitExceededBehavior(), LimitExceededBehavior.Ignore))
+                .build();
+
+        return BatchingSettings.newBuilder()
+                .setIsEnabled(true)
+                .setElementCountThreshold(orDefault(batching.elementCountThreshold(), DEFAULT_ELEMENT_COUNT_THRESHOLD))
+                .setRequestByteThreshold(orDefault(batching.requestByteThreshold(), DEFAULT_REQUEST_BYTE_THRESHOLD))
+                .setDelayThresholdDuration(orDefault(batching.delayThreshold(), DEFAULT_DELAY_THRESHOLD))
+                .setFlowControlSettings(flowControlSettings)
+                .build();
+    }
+
+    private static <T> T orDefault(T value, T defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
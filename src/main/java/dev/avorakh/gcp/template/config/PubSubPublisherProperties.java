@@ -0,0 +1,135 @@
+package dev.avorakh.gcp.template.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Pub/Sub publisher settings. {@code publisher} applies to every topic, an entry of {@code topics} overrides
+ * single values for the topic with the same name. Values that are not set anywhere fall back to the
+ * client library defaults. These settings replace the batching, flow control and compression of
+ * {@code spring.cloud.gcp.pubsub.publisher.*}.
+ * <p>
+ * {@code routes} map event types to topics; the first matching route wins and events without a matching
+ * route go to the default {@code topic}. {@code ordering} enables ordering keys on every publisher.
+ */
+@ConfigurationProperties(prefix = "app.pubsub")
+public record PubSubPublisherProperties(
+        String topic,
+        PublisherSettings publisher,
+        Map<String, PublisherSettings> topics,
+        List<Route> routes,
+        Ordering ordering) {
+
+    public PubSubPublisherProperties {
+        publisher = publisher == null ? PublisherSettings.EMPTY : publisher;
+        topics = topics == null ? Map.of() : topics;
+        routes = routes == null ? List.of() : List.copyOf(routes);
+        ordering = ordering == null ? Ordering.DISABLED : ordering;
+    }
+
+    /**
+     * @param topic topic name as passed to the publisher, either the short name or {@code projects/../topics/..}
+     */
+    public PublisherSettings settingsFor(String topic) {
+        PublisherSettings overrides = topics.get(topic);
+        if (overrides == null) {
+            overrides = topics.get(topic.substring(topic.lastIndexOf('/') + 1));
+        }
+        return overrides == null ? publisher : overrides.withFallback(publisher);
+    }
+
+    /**
+     * @param executorThreads threads of the publisher's own executor, which batches and sends the messages of the topic
+     */
+    public record PublisherSettings(Batching batching, FlowControl flowControl, Compression compression, Integer executorThreads) {
+
+        public static final PublisherSettings EMPTY = new PublisherSettings(null, null, null, null);
+
+        public PublisherSettings {
+            batching = batching == null ? Batching.EMPTY : batching;
+            flowControl = flowControl == null ? FlowControl.EMPTY : flowControl;
+            compression = compression == null ? Compression.EMPTY : compression;
+        }
+
+        PublisherSettings withFallback(PublisherSettings fallback) {
+            return new PublisherSettings(
+                    batching.withFallback(fallback.batching()),
+                    flowControl.withFallback(fallback.flowControl()),
+                    compression.withFallback(fallback.compression()),
+                    firstNonNull(executorThreads, fallback.executorThreads()));
+        }
+    }
+
+    /**
+     * @param eventType event type or a pattern with {@code *} wildcards, e.g. {@code order-*}
+     * @param topic     topic of the matching events
+     */
+    public record Route(String eventType, String topic) {
+    }
+
+    /**
+     * A batch is sent once any of the thresholds is reached.
+     */
+    public record Batching(Long elementCountThreshold, Long requestByteThreshold, Duration delayThreshold) {
+
+        static final Batching EMPTY = new Batching(null, null, null);
+
+        Batching withFallback(Batching fallback) {
+            return new Batching(
+                    firstNonNull(elementCountThreshold, fallback.elementCountThreshold()),
+                    firstNonNull(requestByteThreshold, fallback.requestByteThreshold()),
+                    firstNonNull(delayThreshold, fallback.delayThreshold()));
+        }
+    }
+
+    /**
+     * Limits messages that are published but not acknowledged yet; {@code limitExceededBehavior} is
+     * {@code block}, {@code throw-exception} or {@code ignore}.
+     */
+    public record FlowControl(Long maxOutstandingElementCount,
+                              Long maxOutstandingRequestBytes,
+                              LimitExceededBehavior limitExceededBehavior) {
+
+        static final FlowControl EMPTY = new FlowControl(null, null, null);
+
+        FlowControl withFallback(FlowControl fallback) {
+            return new FlowControl(
+                    firstNonNull(maxOutstandingElementCount, fallback.maxOutstandingElementCount()),
+                    firstNonNull(maxOutstandingRequestBytes, fallback.maxOutstandingRequestBytes()),
+                    firstNonNull(limitExceededBehavior, fallback.limitExceededBehavior()));
+        }
+    }
+
+    /**
+     * gRPC compression of publish requests larger than {@code bytesThreshold}.
+     */
+    public record Compression(Boolean enabled, Long bytesThreshold) {
+
+        static final Compression EMPTY = new Compression(null, null);
+
+        Compression withFallback(Compression fallback) {
+            return new Compression(
+                    firstNonNull(enabled, fallback.enabled()),
+                    firstNonNull(bytesThreshold, fallback.bytesThreshold()));
+        }
+    }
+
+    /**
+     * @param enabled      enables message ordering on the publishers; without it ordering keys are not sent
+     * @param payloadField payload field, or JSON pointer such as {@code /customer/id}, used as ordering key of
+     *                     events without an explicit {@code orderingKey}
+     */
+    public record Ordering(boolean enabled, String payloadField) {
+
+        public static final Ordering DISABLED = new Ordering(false, null);
+    }
+
+    private static <T> T firstNonNull(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+}
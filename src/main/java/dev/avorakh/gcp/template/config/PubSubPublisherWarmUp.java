@@ -0,0 +1,41 @@
+package dev.avorakh.gcp.template.config;
+
+import com.google.cloud.spring.pubsub.support.PublisherFactory;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import dev.avorakh.gcp.template.svc.EventTopicRouter;
+
+/**
+ * Creates the publisher of every routed topic once the application is ready, so the first events of a topic do not
+ * pay for the channel and executor setup. The publisher factory caches the publishers per topic.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PubSubPublisherWarmUp {
+
+    ObjectProvider<PublisherFactory> publisherFactory;
+    EventTopicRouter topicRouter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        publisherFactory.ifAvailable(factory -> topicRouter.topics().forEach(topic -> {
+            try {
+                factory.createPublisher(topic);
+                log.info("Pre-warmed Pub/Sub publisher. topic:[{}].", topic);
+            } catch (RuntimeException e) {
+                log.warn("Unable to pre-warm Pub/Sub publisher. topic:[{}], error:[{}].", topic, e.getMessage());
+            }
+        }));
+    }
+}
@@ -0,0 +1,19 @@
+package dev.avorakh.gcp.template.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.avorakh.gcp.template.svc.PublishRetryExecutor;
+
+@Configuration
+@EnableConfigurationProperties(PublishRetryProperties.class)
+public class PublishRetryConfig {
+
+    @Bean
+    public PublishRetryExecutor publishRetryExecutor(PublishRetryProperties properties, MeterRegistry meterRegistry) {
+        return new PublishRetryExecutor(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package dev.avorakh.gcp.template.config;
+
+import java.time.Duration;
+import java.util.Set;
+
+import io.grpc.Status;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Retries of failed Pub/Sub publishes on top of the retries of the client library.
+ *
+ * @param enabled        {@code false} answers the first failure
+ * @param maxAttempts    publish attempts of a message including the first one
+ * @param initialBackoff upper bound of the random delay before the first retry, it grows by {@code multiplier}
+ *                       per retry up to {@code maxBackoff}
+ * @param deadline       time from the first attempt after which no retry is started
+ * @param retryableCodes gRPC status codes worth a retry, other failures are answered right away
+ * @param budget         limits retries across all requests, so an outage does not multiply the load on Pub/Sub
+ */
+@ConfigurationProperties(prefix = "app.publish.retry")
+public record PublishRetryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4") int maxAttempts,
+        @DefaultValue("50ms") Duration initialBackoff,
+        @DefaultValue("2s") Duration maxBackoff,
+        @DefaultValue("2.0") double multiplier,
+        @DefaultValue("10s") Duration deadline,
+        @DefaultValue({"UNAVAILABLE", "DEADLINE_EXCEEDED", "RESOURCE_EXHAUSTED", "ABORTED", "INTERNAL"})
+        Set<Status.Code> retryableCodes,
+        @DefaultValue Budget budget) {
+
+    public static final PublishRetryProperties DISABLED = new PublishRetryProperties(
+            false, 1, Duration.ZERO, Duration.ZERO, 1.0, Duration.ZERO, Set.of(), new Budget(0, 0, 0));
+
+    public PublishRetryProperties {
+        retryableCodes = retryableCodes == null ? Set.of() : Set.copyOf(retryableCodes);
+    }
+
+    /**
+     * Token bucket of retries: every publish adds {@code ratio} tokens, every retry takes one and the bucket is
+     * refilled with {@code minRetriesPerSecond} so low traffic can still retry. It holds at most {@code maxTokens}.
+     */
+    public record Budget(
+            @DefaultValue("0.1") double ratio,
+            @DefaultValue("10") double minRetriesPerSecond,
+            @DefaultValue("100") double maxTokens) {
+    }
+}
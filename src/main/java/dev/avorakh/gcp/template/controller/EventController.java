@@ -2,16 +2,30 @@ package dev.avorakh.gcp.template.controller;
 
 import dev.avorakh.gcp.template.model.RequestEventDto;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.svc.EventAdmissionControl;
+import dev.avorakh.gcp.template.svc.EventIds;
 import dev.avorakh.gcp.template.svc.EventPublisher;
+import dev.avorakh.gcp.template.svc.EventStreamPublisher;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,20 +34,74 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/events")
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class EventController {
 
     EventPublisher publisher;
+    EventAdmissionControl admissionControl;
+    EventStreamPublisher streamPublisher;
 
 
     @PostMapping
     public CompletableFuture<ResponseEntity<PublishedEventDto>> publish(@RequestBody RequestEventDto event) {
-        if (event.getId() == null || event.getId().isEmpty()) {
-            event.setId(UUID.randomUUID().toString());
+        EventIds.assignIdIfMissing(event);
+        return admitted(List.of(event), () -> publisher.publishEvent(event),
+                        PublishedEventDto.builder().errorReason(EventAdmissionControl.REJECTED_REASON).build());
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<PublishedEventDto>>> publishBatch(@RequestBody List<RequestEventDto> events) {
+        events.forEach(EventIds::assignIdIfMissing);
+        if (admissionControl.exceedsLimits(events)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build());
         }
-        return publisher.publishEvent(event)
-                .thenApply(ResponseEntity::ok);
+        return admitted(events, () -> publisher.publishEvents(events), null);
     }
-}
 
+    /**
+     * Publishes newline-delimited JSON events and streams one result line per event back in the same order.
+     */
+    @PostMapping(path = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void publishStream(InputStream events, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        streamPublisher.publish(events, response.getOutputStream());
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> admitted(List<RequestEventDto> events,
+                                                              Supplier<CompletableFuture<T>> publish,
+                                                              T rejectedBody) {
+        Optional<EventAdmissionControl.Permit> permit = admissionControl.tryAcquire(events);
+        if (permit.isEmpty()) {
+            return CompletableFuture.completedFuture(retryLater(HttpStatus.TOO_MANY_REQUESTS, rejectedBody));
+        }
+
+        try {
+            return publish.get()
+                    .whenComplete((result, throwable) -> permit.get().release())
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(throwable -> rejectedByExecutor(throwable, rejectedBody));
+        } catch (RuntimeException e) {
+            permit.get().release();
+            throw e;
+        }
+    }
+
+    /**
+     * The post-processing executor was saturated, the client retries later like after an admission rejection.
+     */
+    private <T> ResponseEntity<T> rejectedByExecutor(Throwable throwable, T rejectedBody) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof RejectedExecutionException) {
+            return retryLater(HttpStatus.SERVICE_UNAVAILABLE, rejectedBody);
+        }
+        throw throwable instanceof CompletionException completionException ? completionException : new CompletionException(throwable);
+    }
+
+    private <T> ResponseEntity<T> retryLater(HttpStatus status, T rejectedBody) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, admissionControl.retryAfter().toSeconds())))
+                .body(rejectedBody);
+    }
+}
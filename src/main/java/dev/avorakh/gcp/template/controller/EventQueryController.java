@@ -0,0 +1,77 @@
+package dev.avorakh.gcp.template.controller;
+
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageDto;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventPageDto;
+import dev.avorakh.gcp.template.svc.EventQueryService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Read API of stored events for both the servlet and the reactive stack; the queries run off the request threads.
+ * <p>
+ * {@code GET /events} lists events newest first without their data. The response carries a {@code next} cursor
+ * while more events match; pass it as {@code after} to get the next page. {@code GET /events/{id}} and
+ * {@code GET /events/by-message-id/{messageId}} return an event with its data.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/events")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventQueryController {
+
+    EventQueryService eventQueryService;
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<EventMessageDto>> findById(@PathVariable UUID id) {
+        return eventQueryService.findById(id).thenApply(ResponseEntity::of);
+    }
+
+    @GetMapping("/by-message-id/{messageId}")
+    public CompletableFuture<ResponseEntity<EventMessageDto>> findByMessageId(@PathVariable String messageId) {
+        return eventQueryService.findByMessageId(messageId).thenApply(ResponseEntity::of);
+    }
+
+    @GetMapping
+    public CompletableFuture<EventPageDto> findEvents(
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String messageId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        var filter = EventMessageFilter.builder()
+                .eventType(eventType)
+                .messageId(messageId)
+                .from(from)
+                .to(to)
+                .build();
+        return eventQueryService.findEvents(filter, cursor(after), limit);
+    }
+
+    private static EventCursor cursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            return EventCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
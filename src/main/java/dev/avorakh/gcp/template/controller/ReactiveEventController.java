@@ -0,0 +1,131 @@
+package dev.avorakh.gcp.template.controller;
+
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.svc.EventAdmissionControl;
+import dev.avorakh.gcp.template.svc.EventIds;
+import dev.avorakh.gcp.template.svc.EventPublisher;
+import dev.avorakh.gcp.template.svc.EventStreamPublisher;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.CodecException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * WebFlux variant of {@link EventController} with the same {@code /events} contract, enabled by the
+ * {@code reactive} profile. Publisher futures are bridged into {@link Mono}; the blocking database work already
+ * runs on the bounded post-processing executor, so no event loop thread waits for it.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/events")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEventController {
+
+    static final int STREAM_ADMISSION_ATTEMPTS = 100;
+    static final Duration STREAM_ADMISSION_BACKOFF = Duration.ofMillis(10);
+
+    EventPublisher publisher;
+    EventAdmissionControl admissionControl;
+
+    @NonFinal
+    @Setter
+    @Value("${app.stream.window-size:256}")
+    int windowSize;
+
+    @PostMapping
+    public Mono<ResponseEntity<PublishedEventDto>> publish(@RequestBody RequestEventDto event) {
+        EventIds.assignIdIfMissing(event);
+        return admitted(List.of(event), () -> publisher.publishEvent(event),
+                        PublishedEventDto.builder().errorReason(EventAdmissionControl.REJECTED_REASON).build());
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<PublishedEventDto>>> publishBatch(@RequestBody List<RequestEventDto> events) {
+        events.forEach(EventIds::assignIdIfMissing);
+        if (admissionControl.exceedsLimits(events)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build());
+        }
+        return admitted(events, () -> publisher.publishEvents(events), null);
+    }
+
+    /**
+     * Publishes newline-delimited JSON events and streams one result line per event back in the same order.
+     * At most {@code app.stream.window-size} publishes of an upload are outstanding. A line that cannot be decoded
+     * ends the stream after the results of the events before it, with one failed line naming the decoding error.
+     */
+    @PostMapping(path = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PublishedEventDto> publishStream(@RequestBody Flux<RequestEventDto> events) {
+        return events
+                .doOnNext(EventIds::assignIdIfMissing)
+                .flatMapSequentialDelayError(this::publishStreamed, windowSize, Queues.XS_BUFFER_SIZE)
+                .onErrorResume(CodecException.class, e -> Mono.just(failed(
+                        EventStreamPublisher.INVALID_EVENT_REASON.formatted(e.getMostSpecificCause().getMessage()))));
+    }
+
+    private <T> Mono<ResponseEntity<T>> admitted(List<RequestEventDto> events,
+                                                 Supplier<CompletableFuture<T>> publish,
+                                                 T rejectedBody) {
+        return Mono.defer(() -> {
+            Optional<EventAdmissionControl.Permit> permit = admissionControl.tryAcquire(events);
+            if (permit.isEmpty()) {
+                return Mono.just(retryLater(HttpStatus.TOO_MANY_REQUESTS, rejectedBody));
+            }
+            return Mono.fromFuture(publish, true)
+                    .doFinally(signal -> permit.get().release())
+                    .map(ResponseEntity::ok)
+                    // the post-processing executor was saturated
+                    .onErrorResume(RejectedExecutionException.class,
+                                   e -> Mono.just(retryLater(HttpStatus.SERVICE_UNAVAILABLE, rejectedBody)));
+        });
+    }
+
+    private <T> ResponseEntity<T> retryLater(HttpStatus status, T rejectedBody) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, admissionControl.retryAfter().toSeconds())))
+                .body(rejectedBody);
+    }
+
+    /**
+     * Waits briefly for an admission permit instead of rejecting the event right away, since the stream's own
+     * outstanding publishes release permits soon.
+     */
+    private Mono<PublishedEventDto> publishStreamed(RequestEventDto event) {
+        return Mono.fromSupplier(() -> admissionControl.tryAcquire(List.of(event)))
+                .flatMap(Mono::justOrEmpty)
+                .repeatWhenEmpty(attempts -> attempts.take(STREAM_ADMISSION_ATTEMPTS).delayElements(STREAM_ADMISSION_BACKOFF))
+                .flatMap(permit -> Mono.fromFuture(() -> publisher.publishEvent(event), true)
+                        .doFinally(signal -> permit.release()))
+                .onErrorResume(throwable -> Mono.just(failed(throwable.getMessage())))
+                .defaultIfEmpty(failed(EventAdmissionControl.REJECTED_REASON));
+    }
+
+    private static PublishedEventDto failed(String errorReason) {
+        return PublishedEventDto.builder()
+                .errorReason(errorReason)
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package dev.avorakh.gcp.template.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -9,7 +10,10 @@ import lombok.Setter;
 
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
 import java.util.UUID;
 
@@ -20,7 +24,7 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class EventMessage {
+public class EventMessage implements Persistable<UUID> {
 
     @Id
     @Column(name = "id", nullable = false)
@@ -36,11 +40,41 @@ public class EventMessage {
     @Column(name = "message_id", length = 255)
     private String messageId;
 
-    @Column(name = "created", length = 255)
-    private String created;
+    /**
+     * Partition key of {@code event_messages}, queries that bound it only scan the matching day partitions.
+     */
+    @Column(name = "created", nullable = false, columnDefinition = "timestamptz")
+    @Builder.Default
+    private OffsetDateTime created = OffsetDateTime.now(ZoneOffset.UTC);
 
-    @Column(name = "modified", length = 255)
-    private String modified;
-}
+    @Column(name = "modified", columnDefinition = "timestamptz")
+    private OffsetDateTime modified;
+
+    /**
+     * Until when the outbox relay that claimed this unpublished message owns it.
+     */
+    @Column(name = "claimed_until", columnDefinition = "timestamptz")
+    private OffsetDateTime claimedUntil;
+
+    /**
+     * The id is assigned by the application, so without this flag {@code save} would treat every
+     * new message as detached and issue a SELECT before the INSERT.
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
 
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntity = false;
+    }
+}
 
@@ -0,0 +1,163 @@
+package dev.avorakh.gcp.template.metrics;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the publish pipeline. Together with {@code http.server.requests} (end-to-end request latency)
+ * they show which stage dominates the latency:
+ * <ul>
+ *     <li>{@code app.events.serialization} - encoding of the event into a Pub/Sub message</li>
+ *     <li>{@code app.events.publish} - publish call until Pub/Sub returned the message id or failed,
+ *     tagged by {@code eventType}, {@code outcome} and {@code error}</li>
+ *     <li>{@code app.events.published} - published events with the same tags</li>
+ *     <li>{@code app.events.publish.in-flight} - publishes waiting for Pub/Sub</li>
+ *     <li>{@code app.events.deduplicated} - duplicate events answered from the cache or the database, tagged by {@code source}</li>
+ *     <li>{@code app.events.persistence} - database writes of event messages, tagged by {@code mode} and {@code outcome}</li>
+ *     <li>{@code app.events.persistence.lost} - event messages that could not be saved and were dropped, tagged by {@code mode}</li>
+ *     <li>{@code app.events.post-processing.failed} - published events whose post processing failed, tagged by {@code error}</li>
+ *     <li>{@code app.events.spilled} - messages spilled to local disk, tagged by {@code eventType}</li>
+ *     <li>{@code app.events.spill.drained} - spilled messages replayed to Pub/Sub, tagged by {@code outcome};
+ *     its rate is the drain rate</li>
+ *     <li>{@code app.events.spill.dead-lettered} - spilled messages given up by the drainer, tagged by
+ *     {@code eventType} and {@code reason} ({@code permanent} or {@code attempts})</li>
+ *     <li>{@code app.events.spill.backlog} and {@code app.events.spill.backlog.bytes} - spilled messages not drained yet</li>
+ * </ul>
+ * The {@code eventType} tag assumes a bounded set of event types.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventMetrics {
+
+    public static final String SERIALIZATION_TIMER = "app.events.serialization";
+    public static final String PUBLISH_TIMER = "app.events.publish";
+    public static final String PUBLISHED_COUNTER = "app.events.published";
+    public static final String PUBLISH_IN_FLIGHT_GAUGE = "app.events.publish.in-flight";
+    public static final String PERSISTENCE_TIMER = "app.events.persistence";
+    public static final String PERSISTENCE_LOST_COUNTER = "app.events.persistence.lost";
+    public static final String POST_PROCESSING_FAILED_COUNTER = "app.events.post-processing.failed";
+    public static final String DEDUPLICATED_COUNTER = "app.events.deduplicated";
+    public static final String SPILLED_COUNTER = "app.events.spilled";
+    public static final String SPILL_DRAINED_COUNTER = "app.events.spill.drained";
+    public static final String SPILL_DEAD_LETTERED_COUNTER = "app.events.spill.dead-lettered";
+    public static final String SPILL_BACKLOG_GAUGE = "app.events.spill.backlog";
+    public static final String SPILL_BACKLOG_BYTES_GAUGE = "app.events.spill.backlog.bytes";
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_FAILURE = "failure";
+    static final String NONE = "none";
+    static final String UNKNOWN = "unknown";
+
+    MeterRegistry meterRegistry;
+    Timer serializationTimer;
+    AtomicInteger publishInFlight = new AtomicInteger();
+
+    public EventMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.serializationTimer = Timer.builder(SERIALIZATION_TIMER)
+                .description("Time to encode an event into a Pub/Sub message")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder(PUBLISH_IN_FLIGHT_GAUGE, publishInFlight, AtomicInteger::get)
+                .description("Publishes waiting for a Pub/Sub response")
+                .register(meterRegistry);
+    }
+
+    public <T> T recordSerialization(Supplier<T> serialization) {
+        return serializationTimer.record(serialization);
+    }
+
+    public Timer.Sample startPublish() {
+        publishInFlight.incrementAndGet();
+        return Timer.start(meterRegistry);
+    }
+
+    public void stopPublish(Timer.Sample sample, String eventType, Throwable throwable) {
+        publishInFlight.decrementAndGet();
+
+        Tags tags = Tags.of(
+                "eventType", eventType == null ? UNKNOWN : eventType,
+                "outcome", throwable == null ? OUTCOME_SUCCESS : OUTCOME_FAILURE,
+                "error", errorClass(throwable));
+
+        sample.stop(Timer.builder(PUBLISH_TIMER)
+                .description("Time from the publish call until Pub/Sub returned a message id or failed")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        meterRegistry.counter(PUBLISHED_COUNTER, tags).increment();
+    }
+
+    public void recordDuplicate(String source) {
+        meterRegistry.counter(DEDUPLICATED_COUNTER, "source", source).increment();
+    }
+
+    public void recordPersistence(String mode, Runnable persistence) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_FAILURE;
+        try {
+            persistence.run();
+            outcome = OUTCOME_SUCCESS;
+        } finally {
+            sample.stop(Timer.builder(PERSISTENCE_TIMER)
+                    .description("Time to write event messages to the database")
+                    .tags("mode", mode, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordPersistenceLost(String mode, int count) {
+        meterRegistry.counter(PERSISTENCE_LOST_COUNTER, "mode", mode).increment(count);
+    }
+
+    public void recordPostProcessingFailure(Throwable throwable) {
+        meterRegistry.counter(POST_PROCESSING_FAILED_COUNTER, "error", errorClass(throwable)).increment();
+    }
+
+    public void recordSpilled(String eventType) {
+        meterRegistry.counter(SPILLED_COUNTER, "eventType", eventType == null ? UNKNOWN : eventType).increment();
+    }
+
+    public void recordDrained(int published, int failed) {
+        meterRegistry.counter(SPILL_DRAINED_COUNTER, "outcome", OUTCOME_SUCCESS).increment(published);
+        meterRegistry.counter(SPILL_DRAINED_COUNTER, "outcome", OUTCOME_FAILURE).increment(failed);
+    }
+
+    public void recordSpillDeadLettered(String eventType, String reason) {
+        meterRegistry.counter(SPILL_DEAD_LETTERED_COUNTER,
+                              "eventType", eventType == null ? UNKNOWN : eventType,
+                              "reason", reason).increment();
+    }
+
+    public void bindSpillBacklog(Supplier<Number> messages, Supplier<Number> bytes) {
+        Gauge.builder(SPILL_BACKLOG_GAUGE, messages)
+                .description("Spilled messages waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder(SPILL_BACKLOG_BYTES_GAUGE, bytes)
+                .description("Size of the spilled messages waiting to be published")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static String errorClass(Throwable throwable) {
+        if (throwable == null) {
+            return NONE;
+        }
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable.getClass().getSimpleName();
+    }
+}
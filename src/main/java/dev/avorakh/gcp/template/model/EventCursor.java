@@ -0,0 +1,46 @@
+package dev.avorakh.gcp.template.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last event of a listing page. Pages are ordered by {@code (created, id)} descending, the next
+ * page starts with the events before this position. Encoded as an opaque URL-safe token.
+ */
+public record EventCursor(OffsetDateTime created, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static EventCursor after(EventMessageSummary summary) {
+        return new EventCursor(summary.created(), summary.id());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is not a cursor returned by {@link #encode()}
+     */
+    public static EventCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid event cursor. cursor:[" + token + "].");
+            }
+            return new EventCursor(
+                    Instant.parse(value.substring(0, separator)).atOffset(ZoneOffset.UTC),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid event cursor. cursor:[" + token + "].", e);
+        }
+    }
+
+    public String encode() {
+        String value = created.toInstant().toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+    }
+}
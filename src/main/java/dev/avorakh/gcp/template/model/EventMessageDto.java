@@ -0,0 +1,28 @@
+package dev.avorakh.gcp.template.model;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventMessageDto(UUID id,
+                              String eventType,
+                              Map<String, Object> eventData,
+                              String messageId,
+                              OffsetDateTime created,
+                              OffsetDateTime modified) {
+
+    public static EventMessageDto of(EventMessage eventMessage) {
+        return new EventMessageDto(
+                eventMessage.getId(),
+                eventMessage.getEventType(),
+                eventMessage.getEventData(),
+                eventMessage.getMessageId(),
+                eventMessage.getCreated(),
+                eventMessage.getModified());
+    }
+}
@@ -0,0 +1,16 @@
+package dev.avorakh.gcp.template.model;
+
+import java.time.OffsetDateTime;
+
+import lombok.Builder;
+
+/**
+ * Filter of the event listing; {@code null} components are not filtered on. {@code from} is inclusive, {@code to}
+ * exclusive.
+ */
+@Builder(toBuilder = true)
+public record EventMessageFilter(String eventType,
+                                 String messageId,
+                                 OffsetDateTime from,
+                                 OffsetDateTime to) {
+}
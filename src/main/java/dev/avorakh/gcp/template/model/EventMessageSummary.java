@@ -0,0 +1,17 @@
+package dev.avorakh.gcp.template.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Listing projection of an event message without {@code event_data}, so listings never read the jsonb column.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventMessageSummary(UUID id,
+                                  String eventType,
+                                  String messageId,
+                                  OffsetDateTime created,
+                                  OffsetDateTime modified) {
+}
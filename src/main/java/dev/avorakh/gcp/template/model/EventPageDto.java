@@ -0,0 +1,12 @@
+package dev.avorakh.gcp.template.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * @param next cursor of the next page, absent on the last page
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventPageDto(List<EventMessageSummary> items, String next) {
+}
@@ -1,6 +1,7 @@
 package dev.avorakh.gcp.template.model;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,5 +15,19 @@ import lombok.experimental.FieldDefaults;
 public class RequestEventDto {
      String id;
      String type;
-     String payload;
+     /**
+      * Raw JSON of the event payload. It is parsed once from the request body and written as is into the
+      * Pub/Sub message data and the {@code event_data} column; a JSON string payload is kept as a string.
+      */
+     JsonNode payload;
+     /**
+      * Pub/Sub ordering key; events with the same key are delivered in publish order. Optional, it can also be
+      * derived from the payload with {@code app.pubsub.ordering.payload-field}.
+      */
+     @JsonInclude(JsonInclude.Include.NON_NULL)
+     String orderingKey;
+
+     public RequestEventDto(String id, String type, JsonNode payload) {
+          this(id, type, payload, null);
+     }
 }
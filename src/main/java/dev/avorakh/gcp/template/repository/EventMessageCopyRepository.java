@@ -0,0 +1,19 @@
+package dev.avorakh.gcp.template.repository;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+
+import java.util.Collection;
+
+/**
+ * Bulk insert of event messages with PostgreSQL {@code COPY}, for batches where per-row {@code INSERT}s are too slow.
+ */
+public interface EventMessageCopyRepository {
+
+    /**
+     * Inserts all event messages with a single {@code COPY ... FROM STDIN (FORMAT binary)}. Joins the current
+     * transaction if there is one. Either all rows are inserted or none, the entities stay detached.
+     *
+     * @return the number of inserted rows
+     */
+    long copyAll(Collection<EventMessage> eventMessages);
+}
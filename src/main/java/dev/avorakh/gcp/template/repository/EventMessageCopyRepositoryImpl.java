@@ -0,0 +1,134 @@
+package dev.avorakh.gcp.template.repository;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes the rows in the PostgreSQL binary copy format: a header, per row the field count and every field as
+ * length-prefixed bytes in the column's binary representation, and a trailer.
+ */
+@RequiredArgsConstructor
+public class EventMessageCopyRepositoryImpl implements EventMessageCopyRepository {
+
+    static final String COPY_SQL = """
+            COPY event_messages (id, event_type, event_data, message_id, created, modified) FROM STDIN (FORMAT binary)
+            """;
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 6;
+    private static final int NULL_LENGTH = -1;
+    private static final byte JSONB_VERSION = 1;
+    private static final OffsetDateTime POSTGRES_EPOCH = OffsetDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectWriter EVENT_DATA_WRITER = new ObjectMapper().writerFor(Map.class);
+
+    private final DataSource dataSource;
+
+    @Override
+    public long copyAll(Collection<EventMessage> eventMessages) {
+        if (eventMessages.isEmpty()) {
+            return 0;
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            var copyOut = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL, BUFFER_SIZE);
+            try {
+                var out = new DataOutputStream(copyOut);
+                out.write(SIGNATURE);
+                out.writeInt(0);
+                out.writeInt(0);
+                for (EventMessage eventMessage : eventMessages) {
+                    writeRow(out, eventMessage);
+                }
+                out.writeShort(-1);
+                out.flush();
+                return copyOut.endCopy();
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Unable to copy event messages. count:[" + eventMessages.size() + "].", e);
+            } finally {
+                if (copyOut.isActive()) {
+                    copyOut.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY event_messages", COPY_SQL, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, EventMessage eventMessage) throws IOException {
+        out.writeShort(FIELD_COUNT);
+        writeUuid(out, eventMessage.getId());
+        writeText(out, eventMessage.getEventType());
+        writeJsonb(out, eventMessage.getEventData());
+        writeText(out, eventMessage.getMessageId());
+        writeTimestamp(out, eventMessage.getCreated());
+        writeTimestamp(out, eventMessage.getModified());
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeInt(2 * Long.BYTES);
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeJsonb(DataOutputStream out, Map<String, Object> value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] json;
+        try {
+            json = EVENT_DATA_WRITER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to write event data as JSON.", e);
+        }
+        out.writeInt(1 + json.length);
+        out.writeByte(JSONB_VERSION);
+        out.write(json);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, OffsetDateTime value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(Long.BYTES);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+    }
+}
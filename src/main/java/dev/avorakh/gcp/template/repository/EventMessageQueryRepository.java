@@ -0,0 +1,22 @@
+package dev.avorakh.gcp.template.repository;
+
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventMessageSummary;
+
+import java.util.List;
+
+/**
+ * Keyset paginated listing of event messages.
+ */
+public interface EventMessageQueryRepository {
+
+    /**
+     * Finds up to {@code limit} event messages matching the filter, newest first, that come after {@code after}
+     * in {@code (created, id)} descending order. Only the filtered columns are part of the query, so the
+     * matching index is used and {@code event_data} is not read.
+     *
+     * @param after position of the last event of the previous page, {@code null} for the first page
+     */
+    List<EventMessageSummary> findSummaries(EventMessageFilter filter, EventCursor after, int limit);
+}
@@ -0,0 +1,62 @@
+package dev.avorakh.gcp.template.repository;
+
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventMessageSummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the query from the filters that are set instead of {@code :param IS NULL OR ...} conditions, which keep
+ * Postgres from choosing the index of the actual filter. The page continues with a row value comparison
+ * {@code (created, id) < (:created, :id)}, an index range scan that costs the same on every page, unlike
+ * {@code OFFSET}.
+ */
+@RequiredArgsConstructor
+public class EventMessageQueryRepositoryImpl implements EventMessageQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<EventMessageSummary> findSummaries(EventMessageFilter filter, EventCursor after, int limit) {
+        var jpql = new StringBuilder("""
+                SELECT new dev.avorakh.gcp.template.model.EventMessageSummary(e.id, e.eventType, e.messageId, e.created, e.modified)
+                FROM EventMessage e
+                WHERE 1 = 1""");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (filter.eventType() != null) {
+            jpql.append(" AND e.eventType = :eventType");
+            parameters.put("eventType", filter.eventType());
+        }
+        if (filter.messageId() != null) {
+            jpql.append(" AND e.messageId = :messageId");
+            parameters.put("messageId", filter.messageId());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND e.created >= :from");
+            parameters.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND e.created < :to");
+            parameters.put("to", filter.to());
+        }
+        if (after != null) {
+            jpql.append(" AND (e.created, e.id) < (:afterCreated, :afterId)");
+            parameters.put("afterCreated", after.created());
+            parameters.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY e.created DESC, e.id DESC");
+
+        TypedQuery<EventMessageSummary> query = entityManager.createQuery(jpql.toString(), EventMessageSummary.class)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
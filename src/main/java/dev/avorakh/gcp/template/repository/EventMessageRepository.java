@@ -2,12 +2,85 @@ package dev.avorakh.gcp.template.repository;
 
 import dev.avorakh.gcp.template.entity.EventMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface EventMessageRepository extends JpaRepository<EventMessage, UUID> {
-}
+public interface EventMessageRepository extends JpaRepository<EventMessage, UUID>, EventMessageCopyRepository,
+        EventMessageQueryRepository {
+
+    /**
+     * Locks the oldest event messages created since {@code since} that are not published yet and not claimed by a
+     * relay whose lease lasts beyond {@code now}. Rows locked by another transaction are skipped, so several relay
+     * instances can work on the outbox in parallel. Must run in a transaction.
+     */
+    @Query(value = """
+            SELECT * FROM event_messages
+            WHERE message_id IS NULL
+              AND created >= :since
+              AND (claimed_until IS NULL OR claimed_until < :now)
+            ORDER BY created
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EventMessage> findUnclaimedForUpdate(@Param("since") OffsetDateTime since, @Param("now") OffsetDateTime now,
+                                              @Param("limit") int limit);
+
+    /**
+     * Leases the event messages created since {@code since} to the calling relay until {@code claimedUntil}.
+     */
+    @Modifying
+    @Query("""
+            UPDATE EventMessage e SET e.claimedUntil = :claimedUntil
+            WHERE e.id IN :ids AND e.created >= :since
+            """)
+    int claim(@Param("ids") Collection<UUID> ids, @Param("since") OffsetDateTime since,
+              @Param("claimedUntil") OffsetDateTime claimedUntil);
+
+    /**
+     * Stores the Pub/Sub message id of a relayed event message and releases its lease.
+     */
+    @Modifying
+    @Query("""
+            UPDATE EventMessage e SET e.messageId = :messageId, e.modified = :modified, e.claimedUntil = NULL
+            WHERE e.id = :id AND e.created = :created
+            """)
+    int markPublished(@Param("id") UUID id, @Param("created") OffsetDateTime created,
+                      @Param("messageId") String messageId, @Param("modified") OffsetDateTime modified);
 
+    /**
+     * Stores the Pub/Sub message id of a stored failed publish that was published again by a retry. Runs in its own
+     * transaction, the post-processors call it without one.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE EventMessage e SET e.messageId = :messageId, e.modified = :modified
+            WHERE e.id = :id AND e.messageId IS NULL
+            """)
+    int updateMissingMessageId(@Param("id") UUID id, @Param("messageId") String messageId,
+                               @Param("modified") OffsetDateTime modified);
+
+    /**
+     * Like {@code findAllById}, but only scans the partitions created since {@code since}.
+     */
+    List<EventMessage> findByIdInAndCreatedGreaterThanEqual(Collection<UUID> ids, OffsetDateTime since);
+
+    /**
+     * Like {@code findById}, but returns the latest row of an id that was stored twice before {@code event_ids}
+     * made ids unique.
+     */
+    Optional<EventMessage> findFirstByIdOrderByCreatedDesc(UUID id);
+
+    Optional<EventMessage> findFirstByMessageId(String messageId);
+}
 
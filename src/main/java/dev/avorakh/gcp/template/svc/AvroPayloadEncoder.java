@@ -0,0 +1,93 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Encodes an event payload in the Avro binary encoding of {@link #SCHEMA} ({@code avro/json-value.avsc}). The
+ * payload is written straight from the JSON tree in schema order, without building Avro records first.
+ * <p>
+ * Integral numbers that fit into a {@code long} are written as {@code long}, other numbers as {@code double}.
+ */
+@UtilityClass
+public class AvroPayloadEncoder {
+
+    public static final Schema SCHEMA = loadSchema();
+
+    private static final int NULL = 0;
+    private static final int BOOLEAN = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int STRING = 4;
+    private static final int ARRAY = 5;
+    private static final int MAP = 6;
+
+    public static byte[] encode(JsonNode payload) {
+        var out = new ByteArrayOutputStream(256);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        try {
+            write(encoder, payload);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode event payload as Avro.", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(BinaryEncoder encoder, JsonNode node) throws IOException {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            encoder.writeIndex(NULL);
+            encoder.writeNull();
+        } else if (node.isBoolean()) {
+            encoder.writeIndex(BOOLEAN);
+            encoder.writeBoolean(node.booleanValue());
+        } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+            encoder.writeIndex(LONG);
+            encoder.writeLong(node.longValue());
+        } else if (node.isNumber()) {
+            encoder.writeIndex(DOUBLE);
+            encoder.writeDouble(node.doubleValue());
+        } else if (node.isArray()) {
+            encoder.writeIndex(ARRAY);
+            encoder.writeArrayStart();
+            encoder.setItemCount(node.size());
+            for (JsonNode element : node) {
+                encoder.startItem();
+                write(encoder, element);
+            }
+            encoder.writeArrayEnd();
+        } else if (node.isObject()) {
+            encoder.writeIndex(MAP);
+            encoder.writeMapStart();
+            encoder.setItemCount(node.size());
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                encoder.startItem();
+                encoder.writeString(field.getKey());
+                write(encoder, field.getValue());
+            }
+            encoder.writeMapEnd();
+        } else {
+            encoder.writeIndex(STRING);
+            encoder.writeString(node.asText());
+        }
+    }
+
+    private static Schema loadSchema() {
+        try (InputStream schema = AvroPayloadEncoder.class.getResourceAsStream("/avro/json-value.avsc")) {
+            return new Schema.Parser().parse(schema);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load Avro schema of the event payload.", e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
+
+import io.grpc.Status;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+
+/**
+ * Spills messages that failed to publish with a transient status ({@code app.publish.retry.retryable-codes}) into a
+ * {@link SpillLog} on local disk and replays them in the background. Permanent failures are answered as failed.
+ * <p>
+ * After a spill, new messages of the same topic are spilled right away instead of waiting for publish timeouts,
+ * until the drainer publishes a message of that topic again; other topics keep publishing directly. The drainer runs
+ * on its own thread, probes Pub/Sub with the oldest message and then publishes at most {@code app.spill.drain-rate}
+ * messages per second, so the replay does not compete with live traffic. An oldest message that fails with a
+ * permanent status, or {@code app.spill.max-drain-attempts} times in a row, is moved to the {@code dead-letter} log
+ * in the spill directory so it cannot block the replay.
+ * <p>
+ * Messages with an ordering key are never spilled: a replay would publish them after later messages of their key.
+ * They are published directly even while their topic is spilling, and a failed publish is answered as failed, the
+ * same way they are not retried.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.spill.enabled", havingValue = "true")
+public class DiskEventSpill implements EventSpill {
+
+    static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+    private static final String DRAIN_THREAD_NAME_PREFIX = "spill-drain-";
+
+    PubSubPublisherTemplate pubSubPublisherTemplate;
+    EventMetrics eventMetrics;
+    PublishRetryExecutor retryExecutor;
+    Set<String> spillingTopics = ConcurrentHashMap.newKeySet();
+
+    @NonFinal
+    @Setter
+    @Value("${app.spill.directory:${java.io.tmpdir}/event-spill}")
+    Path directory;
+
+    @NonFinal
+    @Setter
+    @Value("${app.spill.segment-size:64MB}")
+    DataSize segmentSize;
+
+    @NonFinal
+    @Setter
+    @Value("${app.spill.drain-rate:1000}")
+    int drainRate;
+
+    @NonFinal
+    @Setter
+    @Value("${app.spill.drain-interval-ms:1000}")
+    long drainIntervalMs;
+
+    @NonFinal
+    @Setter
+    @Value("${app.spill.publish-timeout-ms:10000}")
+    long publishTimeoutMs;
+
+    /**
+     * Failed drains of the oldest message with a transient status before it is moved to the dead letters.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.spill.max-drain-attempts:100}")
+    int maxDrainAttempts;
+
+    @NonFinal
+    SpillLog spillLog;
+
+    @NonFinal
+    SpillLog deadLetters;
+
+    @NonFinal
+    ScheduledExecutorService drainExecutor;
+
+    /**
+     * Only touched by the drainer.
+     */
+    @NonFinal
+    int headFailures;
+
+    @PostConstruct
+    void init() {
+        int size = Math.toIntExact(segmentSize.toBytes());
+        spillLog = new SpillLog(directory, size);
+        deadLetters = new SpillLog(directory.resolve(DEAD_LETTER_DIRECTORY), size);
+        spillLog.read(budget()).forEach(entry -> spillingTopics.add(entry.topic()));
+        eventMetrics.bindSpillBacklog(spillLog::backlog, spillLog::backlogBytes);
+
+        drainExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(DRAIN_THREAD_NAME_PREFIX));
+        drainExecutor.scheduleWithFixedDelay(this::drainSafely, drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        drainExecutor.shutdownNow();
+        try {
+            drainExecutor.awaitTermination(publishTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spillLog.close();
+        deadLetters.close();
+    }
+
+    @Override
+    public boolean spill(String topic, PubsubMessage message) {
+        if (!message.getOrderingKey().isEmpty()) {
+            return false;
+        }
+        try {
+            spillLog.append(topic, message);
+        } catch (RuntimeException e) {
+            log.error("Unable to spill Pub/Sub message. topic:[{}], error:[{}].", topic, e.getMessage(), e);
+            return false;
+        }
+        spillingTopics.add(topic);
+        eventMetrics.recordSpilled(message.getAttributesOrDefault("eventType", null));
+        return true;
+    }
+
+    @Override
+    public boolean isSpillable(Throwable throwable) {
+        return retryExecutor.isRetryable(throwable);
+    }
+
+    @Override
+    public boolean isSpilling(String topic) {
+        return spillingTopics.contains(topic);
+    }
+
+    /**
+     * Replays one budget of spilled messages. Runs on the drain thread, tests call it directly.
+     */
+    void drain() {
+        List<SpillLog.Entry> entries = spillLog.read(budget());
+        if (entries.isEmpty()) {
+            spillingTopics.clear();
+            return;
+        }
+
+        SpillLog.Entry head = entries.getFirst();
+        Throwable headFailure = publishAll(List.of(head)).getFirst();
+        if (headFailure != null) {
+            onHeadFailure(head, headFailure);
+            return;
+        }
+        headFailures = 0;
+        spillLog.commit(List.of(head));
+        spillingTopics.remove(head.topic());
+
+        List<SpillLog.Entry> remaining = entries.subList(1, entries.size());
+        List<Throwable> failures = publishAll(remaining);
+        int drained = 0;
+        while (drained < failures.size() && failures.get(drained) == null) {
+            drained++;
+        }
+        spillLog.commit(remaining.subList(0, drained));
+        for (int i = 0; i < remaining.size(); i++) {
+            if (failures.get(i) == null) {
+                spillingTopics.remove(remaining.get(i).topic());
+            }
+        }
+        eventMetrics.recordDrained(drained + 1, remaining.size() - drained);
+        log.info("Drained spilled Pub/Sub messages. drained:[{}], backlog:[{}].", drained + 1, spillLog.backlog());
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Unable to drain spilled Pub/Sub messages. error:[{}].", e.getMessage(), e);
+        }
+    }
+
+    private void onHeadFailure(SpillLog.Entry head, Throwable failure) {
+        boolean permanent = !retryExecutor.isRetryable(failure);
+        if (!permanent && ++headFailures < maxDrainAttempts) {
+            eventMetrics.recordDrained(0, 1);
+            log.warn("Unable to drain oldest spilled Pub/Sub message, retrying later. topic:[{}], attempts:[{}], error:[{}].",
+                     head.topic(), headFailures, failure.getMessage());
+            return;
+        }
+
+        try {
+            deadLetters.append(head.topic(), head.message());
+        } catch (RuntimeException e) {
+            log.error("Unable to dead-letter spilled Pub/Sub message, dropping it. topic:[{}], message:[{}], error:[{}].",
+                      head.topic(), head.message(), e.getMessage(), e);
+        }
+        spillLog.commit(List.of(head));
+        headFailures = 0;
+        eventMetrics.recordSpillDeadLettered(head.message().getAttributesOrDefault("eventType", null),
+                                             permanent ? "permanent" : "attempts");
+        log.error("Moved spilled Pub/Sub message to the dead letters. topic:[{}], permanent:[{}], error:[{}].",
+                  head.topic(), permanent, failure.getMessage());
+    }
+
+    /**
+     * @return the failure of every entry in order, {@code null} for a published one
+     */
+    private List<Throwable> publishAll(List<SpillLog.Entry> entries) {
+        List<CompletableFuture<String>> futures = entries.stream()
+                .map(this::publish)
+                .toList();
+        await(futures);
+        return futures.stream()
+                .map(DiskEventSpill::failure)
+                .toList();
+    }
+
+    private CompletableFuture<String> publish(SpillLog.Entry entry) {
+        try {
+            return OrderingKeys.resumeOnFailure(pubSubPublisherTemplate, entry.topic(), entry.message(),
+                                                pubSubPublisherTemplate.publish(entry.topic(), entry.message()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void await(List<CompletableFuture<String>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Unable to drain spilled Pub/Sub message. error:[{}].", e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            log.warn("Timed out draining spilled Pub/Sub messages. timeoutMs:[{}].", publishTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int budget() {
+        return (int) Math.max(1, drainRate * drainIntervalMs / 1000);
+    }
+
+    /**
+     * A publish that did not complete within {@code publish-timeout-ms} counts as a transient failure.
+     */
+    private static Throwable failure(CompletableFuture<String> future) {
+        if (!future.isDone()) {
+            return Status.DEADLINE_EXCEEDED
+                    .withDescription("Spilled message was not published in time")
+                    .asRuntimeException();
+        }
+        return future.handle((messageId, throwable) -> throwable).join();
+    }
+}
@@ -0,0 +1,169 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+import dev.avorakh.gcp.template.config.EventAdmissionProperties;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+/**
+ * Bounds the number of events in flight, i.e. accepted but not answered yet, on this node and per event type.
+ * A request either gets permits for all of its events or is rejected right away, so a slow Pub/Sub or database
+ * makes the endpoint shed load instead of queueing futures until memory runs out. A request with more events than
+ * a limit allows can never be admitted and has to be split, see {@link #exceedsLimits(List)}.
+ * <p>
+ * Reports {@code app.admission.in-flight} and {@code app.admission.saturation} (in flight / limit) for the node
+ * ({@code eventType=all}) and every limited event type, and counts rejected events in {@code app.admission.rejected}.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventAdmissionControl {
+
+    public static final String REJECTED_REASON = "Too many events in flight, retry later";
+
+    static final String IN_FLIGHT_GAUGE = "app.admission.in-flight";
+    static final String SATURATION_GAUGE = "app.admission.saturation";
+    static final String REJECTED_COUNTER = "app.admission.rejected";
+    static final String ALL_EVENT_TYPES = "all";
+
+    private static final Permit NO_OP_PERMIT = () -> {
+    };
+
+    boolean enabled;
+    Duration retryAfter;
+    Limit global;
+    Map<String, Limit> eventTypeLimits;
+    MeterRegistry meterRegistry;
+
+    public EventAdmissionControl(EventAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.retryAfter = properties.retryAfter();
+        this.meterRegistry = meterRegistry;
+        this.global = new Limit(ALL_EVENT_TYPES, properties.maxInFlight(), meterRegistry);
+
+        var limits = new LinkedHashMap<String, Limit>();
+        properties.eventTypes().forEach((eventType, maxInFlight) ->
+                limits.put(eventType, new Limit(eventType, maxInFlight, meterRegistry)));
+        this.eventTypeLimits = Map.copyOf(limits);
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return true if the events exceed the node limit or an event type limit on their own, so retrying the same
+     * request never admits it
+     */
+    public boolean exceedsLimits(List<RequestEventDto> events) {
+        if (!enabled) {
+            return false;
+        }
+
+        Map<Limit, Integer> requested = requested(events);
+        for (var entry : requested.entrySet()) {
+            if (entry.getValue() > entry.getKey().maxInFlight) {
+                reject(events, entry.getKey());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a permit to release once the events are answered, or empty if the events exceed a limit
+     */
+    public Optional<Permit> tryAcquire(List<RequestEventDto> events) {
+        if (!enabled) {
+            return Optional.of(NO_OP_PERMIT);
+        }
+
+        Map<Limit, Integer> requested = requested(events);
+
+        var acquired = new LinkedHashMap<Limit, Integer>();
+        for (var entry : requested.entrySet()) {
+            if (!entry.getKey().semaphore.tryAcquire(entry.getValue())) {
+                acquired.forEach(Limit::release);
+                reject(events, entry.getKey());
+                return Optional.empty();
+            }
+            acquired.put(entry.getKey(), entry.getValue());
+        }
+
+        var released = new AtomicBoolean();
+        return Optional.of(() -> {
+            if (released.compareAndSet(false, true)) {
+                acquired.forEach(Limit::release);
+            }
+        });
+    }
+
+    private Map<Limit, Integer> requested(List<RequestEventDto> events) {
+        Map<Limit, Integer> requested = events.stream()
+                .map(RequestEventDto::getType)
+                .filter(eventTypeLimits::containsKey)
+                .collect(Collectors.groupingBy(eventTypeLimits::get, LinkedHashMap::new, Collectors.summingInt(event -> 1)));
+        requested.put(global, events.size());
+        return requested;
+    }
+
+    private void reject(List<RequestEventDto> events, Limit limit) {
+        log.warn("Rejected events over the in-flight limit. limit:[{}], maxInFlight:[{}], events:[{}].",
+                 limit.name, limit.maxInFlight, events.size());
+        events.stream()
+                .collect(Collectors.groupingBy(event -> eventTypeTag(event.getType()), Collectors.counting()))
+                .forEach((eventType, count) -> meterRegistry.counter(REJECTED_COUNTER, "eventType", eventType).increment(count));
+    }
+
+    private String eventTypeTag(String eventType) {
+        return eventTypeLimits.containsKey(eventType) ? eventType : ALL_EVENT_TYPES;
+    }
+
+    @FunctionalInterface
+    public interface Permit {
+
+        void release();
+    }
+
+    private static final class Limit {
+
+        final String name;
+        final int maxInFlight;
+        final Semaphore semaphore;
+
+        Limit(String name, int maxInFlight, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.maxInFlight = maxInFlight;
+            this.semaphore = new Semaphore(maxInFlight);
+            Gauge.builder(IN_FLIGHT_GAUGE, this, Limit::inFlight)
+                    .description("Events accepted and not answered yet")
+                    .tag("eventType", name)
+                    .register(meterRegistry);
+            Gauge.builder(SATURATION_GAUGE, this, limit -> (double) limit.inFlight() / limit.maxInFlight)
+                    .description("Events in flight relative to the limit")
+                    .tag("eventType", name)
+                    .register(meterRegistry);
+        }
+
+        int inFlight() {
+            return maxInFlight - semaphore.availablePermits();
+        }
+
+        void release(int permits) {
+            semaphore.release(permits);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.util.UUID;
+
+import lombok.experimental.UtilityClass;
+
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+@UtilityClass
+public class EventIds {
+
+    public static void assignIdIfMissing(RequestEventDto event) {
+        if (event.getId() == null || event.getId().isEmpty()) {
+            event.setId(UUID.randomUUID().toString());
+        }
+    }
+}
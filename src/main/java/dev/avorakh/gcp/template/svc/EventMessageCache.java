@@ -0,0 +1,94 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.annotation.PostConstruct;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import dev.avorakh.gcp.template.model.EventMessageDto;
+
+/**
+ * Recently stored events by id and by Pub/Sub message id, bounded by {@code app.events.cache.maximum-size} per key
+ * and expired {@code app.events.cache.ttl} after they were cached; a maximum size of 0 disables the cache.
+ * <p>
+ * Only published events are cached: their row does not change anymore, so a cached event is never stale. An outbox
+ * row gets its message id later and is always read from the database until then.
+ * <p>
+ * Hits, misses and evictions are reported by the {@code cache.*} meters with the {@code cache} tag
+ * {@code event-messages-by-id} or {@code event-messages-by-message-id}.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventMessageCache {
+
+    static final String BY_ID_CACHE = "event-messages-by-id";
+    static final String BY_MESSAGE_ID_CACHE = "event-messages-by-message-id";
+
+    MeterRegistry meterRegistry;
+
+    @NonFinal
+    @Setter
+    @Value("${app.events.cache.maximum-size:10000}")
+    long maximumSize;
+
+    @NonFinal
+    @Setter
+    @Value("${app.events.cache.ttl:5m}")
+    Duration ttl;
+
+    @NonFinal
+    Cache<UUID, EventMessageDto> byId;
+
+    @NonFinal
+    Cache<String, EventMessageDto> byMessageId;
+
+    @PostConstruct
+    void init() {
+        byId = CaffeineCacheMetrics.monitor(meterRegistry, newCache(), BY_ID_CACHE);
+        byMessageId = CaffeineCacheMetrics.monitor(meterRegistry, newCache(), BY_MESSAGE_ID_CACHE);
+    }
+
+    public Optional<EventMessageDto> getById(UUID id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    public Optional<EventMessageDto> getByMessageId(String messageId) {
+        return Optional.ofNullable(byMessageId.getIfPresent(messageId));
+    }
+
+    /**
+     * Caches the event if it is published, otherwise does nothing.
+     */
+    public void put(EventMessageDto event) {
+        if (event.messageId() == null) {
+            return;
+        }
+        byId.put(event.id(), event);
+        byMessageId.put(event.messageId(), event);
+    }
+
+    private <K> Cache<K, EventMessageDto> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package dev.avorakh.gcp.template.svc;
+
+import static java.time.OffsetDateTime.now;
+import static java.time.ZoneOffset.UTC;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import lombok.experimental.UtilityClass;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+@UtilityClass
+public class EventMessageMapper {
+
+    /**
+     * Set in {@code eventData} of an event that was accepted without {@code messageId} because its publish was
+     * spilled to disk; it tells such a row apart from a failed publish.
+     */
+    public static final String SPILLED = "spilled";
+
+    /**
+     * Maps an event that is not published yet, i.e. an outbox row without {@code messageId}.
+     */
+    public static EventMessage toEventMessage(RequestEventDto event) {
+        return toEventMessage(event, PublishedEventDto.builder().build());
+    }
+
+    public static EventMessage toEventMessage(RequestEventDto event, PublishedEventDto publishedEventDto) {
+        OffsetDateTime now = now(UTC);
+
+        Map<String, Object> eventData = new LinkedHashMap<>(4);
+        eventData.put("id", event.getId());
+        eventData.put("type", event.getType());
+        eventData.put("payload", Objects.requireNonNullElse(event.getPayload(), NullNode.getInstance()));
+        if (event.getOrderingKey() != null) {
+            eventData.put("orderingKey", event.getOrderingKey());
+        }
+        if (publishedEventDto.success() && publishedEventDto.messageId() == null) {
+            eventData.put(SPILLED, true);
+        }
+
+        return EventMessage.builder()
+                .id(UUID.fromString(event.getId()))
+                .eventType(event.getType())
+                .eventData(eventData)
+                .messageId(publishedEventDto.messageId())
+                .created(now)
+                .modified(now)
+                .build();
+    }
+
+    public static boolean isSpilled(EventMessage eventMessage) {
+        return eventMessage.getEventData() != null && Boolean.TRUE.equals(eventMessage.getEventData().get(SPILLED));
+    }
+}
@@ -0,0 +1,130 @@
+package dev.avorakh.gcp.template.svc;
+
+import static java.time.ZoneOffset.UTC;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the daily partitions of {@code event_messages}: creates the partitions of today and the next
+ * {@code premake-days} days, so inserts never go to the default partition, and drops partitions older than
+ * {@code retention}. Dropping a partition is a metadata change, no rows are deleted and no vacuum is needed; only the
+ * ids of the dropped rows are deleted from the narrow {@code event_ids} table that keeps ids unique.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.persistence.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class EventMessagePartitionMaintenance {
+
+    static final Pattern PARTITION_NAME = Pattern.compile("event_messages_(\\d{8})");
+
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    JdbcOperations jdbcOperations;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.partitions.premake-days:3}")
+    int premakeDays;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.partitions.hash-partitions:4}")
+    int hashPartitions;
+
+    /**
+     * Zero keeps every partition.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.partitions.retention:30d}")
+    Duration retention;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.persistence.partitions.cron:0 5 * * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            maintain(LocalDate.now(UTC));
+        } catch (DataAccessException e) {
+            log.error("Unable to maintain event_messages partitions. error:[{}].", e.getMessage(), e);
+        }
+    }
+
+    void maintain(LocalDate today) {
+        for (int day = 0; day <= premakeDays; day++) {
+            createPartition(today.plusDays(day));
+        }
+        if (!retention.isZero()) {
+            dropPartitionsBefore(today.minusDays(retention.toDays()));
+        }
+    }
+
+    private void createPartition(LocalDate day) {
+        String created = jdbcOperations.queryForObject(
+                "SELECT event_messages_create_partition(?, ?, ?)",
+                String.class,
+                day.atStartOfDay().atOffset(UTC),
+                day.plusDays(1).atStartOfDay().atOffset(UTC),
+                hashPartitions);
+        if (created != null) {
+            log.info("Created event_messages partition. partition:[{}], hashPartitions:[{}].", created, hashPartitions);
+        }
+    }
+
+    private void dropPartitionsBefore(LocalDate cutoff) {
+        for (String partition : partitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches() && LocalDate.parse(matcher.group(1), PARTITION_DATE).isBefore(cutoff)) {
+                jdbcOperations.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired event_messages partition. partition:[{}], cutoff:[{}].", partition, cutoff);
+            }
+        }
+        deleteIdsBefore(cutoff);
+    }
+
+    /**
+     * Ids of rows that are still stored, e.g. in the default partition, stay registered.
+     */
+    private void deleteIdsBefore(LocalDate cutoff) {
+        int deleted = jdbcOperations.update("""
+                DELETE FROM event_ids i
+                WHERE i.created < ?
+                  AND NOT EXISTS (SELECT 1 FROM event_messages m WHERE m.id = i.id AND m.created = i.created)
+                """, cutoff.atStartOfDay().atOffset(UTC));
+        if (deleted > 0) {
+            log.info("Deleted expired event ids. deleted:[{}], cutoff:[{}].", deleted, cutoff);
+        }
+    }
+
+    List<String> partitions() {
+        return jdbcOperations.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'event_messages'::regclass
+                ORDER BY c.relname
+                """, String.class);
+    }
+}
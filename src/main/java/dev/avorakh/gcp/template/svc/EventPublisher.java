@@ -3,8 +3,15 @@ package dev.avorakh.gcp.template.svc;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface EventPublisher {
     CompletableFuture<PublishedEventDto> publishEvent(RequestEventDto event);
+
+    /**
+     * Publishes all events concurrently and completes once every publish has completed.
+     * The result keeps the order of the given events, one {@link PublishedEventDto} per event.
+     */
+    CompletableFuture<List<PublishedEventDto>> publishEvents(List<RequestEventDto> events);
 }
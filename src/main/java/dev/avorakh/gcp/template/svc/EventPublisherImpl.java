@@ -1,57 +1,157 @@
 package dev.avorakh.gcp.template.svc;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
 import com.google.pubsub.v1.PubsubMessage;
+import io.micrometer.core.instrument.Timer;
 
+import dev.avorakh.gcp.template.metrics.EventMetrics;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import lombok.experimental.FieldDefaults;
-import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
-import static com.google.protobuf.ByteString.*;
-
 @Slf4j
 @Service
+@Qualifier(IdempotentEventPublisher.PUBLISHER_DELEGATE)
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.publish.mode", havingValue = "direct", matchIfMissing = true)
 public class EventPublisherImpl implements EventPublisher {
 
     PubSubPublisherTemplate pubSubPublisherTemplate;
-    ObjectMapper objectMapper;
-    PublishedEventPostProcessor publishedEventPostProcessor;
-    @NonFinal
-    @Setter
-    @Value("${app.pubsub.topic}")
-    String topic;
+    PubsubMessageConverter pubsubMessageConverter;
+    PublishedEventPostProcessorChain postProcessorChain;
+    EventMetrics eventMetrics;
+    EventTopicRouter topicRouter;
+    PublishRetryExecutor retryExecutor;
+    EventSpill eventSpill;
 
 
+    @Override
     public CompletableFuture<PublishedEventDto> publishEvent(RequestEventDto event) {
 
-        PubsubMessage message = toPubsubMessage(event);
+        PubsubMessage message = eventMetrics.recordSerialization(() -> pubsubMessageConverter.toPubsubMessage(event));
+        String topic = topicRouter.topicFor(event.getType());
+
+        if (eventSpill.isSpilling(topic) && eventSpill.spill(topic, message)) {
+            return postProcess(event, spilled());
+        }
+
+        CompletableFuture<String> published;
+        try {
+            // a retry would land behind later messages of its ordering key and break their order
+            published = message.getOrderingKey().isEmpty()
+                    ? retryExecutor.execute(() -> publish(event, topic, message))
+                    : publish(event, topic, message);
+        } catch (RuntimeException e) {
+            if (!eventSpill.isSpillable(e) || !eventSpill.spill(topic, message)) {
+                throw e;
+            }
+            log.warn("Unable to publish Pub/Sub message, spilled it for a later publish. message:[{}], error:[{}].",
+                    message, e.getMessage());
+            return postProcess(event, spilled());
+        }
+        return published
+                .handle((messageId, throwable) -> handleMessage(messageId, throwable, topic, message))
+                .thenCompose(response -> postProcess(event, response));
+    }
+
+    /**
+     * Post processing runs after Pub/Sub accepted (or rejected) the message, so its failure does not change the
+     * publish result: it is logged and counted, and the caller still gets the message id.
+     */
+    private CompletableFuture<PublishedEventDto> postProcess(RequestEventDto event, PublishedEventDto response) {
+        CompletableFuture<PublishedEventDto> processed;
+        try {
+            processed = postProcessorChain.process(event, response);
+        } catch (RuntimeException e) {
+            processed = CompletableFuture.failedFuture(e);
+        }
+        return processed.exceptionally(throwable -> {
+            if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                throwable = throwable.getCause();
+            }
+            log.error("Post processing of a published event failed. eventId:[{}], messageId:[{}], error:[{}].",
+                    event.getId(), response.messageId(), throwable, throwable);
+            eventMetrics.recordPostProcessingFailure(throwable);
+            return response;
+        });
+    }
+
+    private CompletableFuture<String> publish(RequestEventDto event, String topic, PubsubMessage message) {
+        Timer.Sample publishSample = eventMetrics.startPublish();
+        try {
+            return OrderingKeys.resumeOnFailure(pubSubPublisherTemplate, topic, message,
+                                                pubSubPublisherTemplate.publish(topic, message))
+                    .whenComplete((messageId, throwable) -> eventMetrics.stopPublish(publishSample, event.getType(), throwable));
+        } catch (RuntimeException e) {
+            eventMetrics.stopPublish(publishSample, event.getType(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<PublishedEventDto>> publishEvents(List<RequestEventDto> events) {
 
-        return pubSubPublisherTemplate.publish(topic, message)
-                .handle((messageId, throwable) -> handleMessage(messageId, throwable, message))
-                .thenApply(response -> publishedEventPostProcessor.process(event, response));
+        List<CompletableFuture<PublishedEventDto>> futures = events.stream()
+                .map(this::publishEventSafely)
+                .toList();
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .toList());
     }
 
-    private PublishedEventDto handleMessage(String messageId, Throwable throwable, PubsubMessage message) {
+    private CompletableFuture<PublishedEventDto> publishEventSafely(RequestEventDto event) {
+        try {
+            return publishEvent(event)
+                    .exceptionally(throwable -> toFailedEvent(event, throwable));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(toFailedEvent(event, e));
+        }
+    }
+
+    /**
+     * A spilled event is accepted like an outbox event: {@code success} without {@code messageId}.
+     */
+    private static PublishedEventDto spilled() {
+        return PublishedEventDto.builder()
+                .success(true)
+                .build();
+    }
+
+    private PublishedEventDto toFailedEvent(RequestEventDto event, Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        log.error("Unable to publish event from batch. eventId:[{}], error:[{}].", event.getId(), throwable, throwable);
+        return PublishedEventDto.builder()
+                .errorReason(throwable.getMessage())
+                .build();
+    }
+
+    private PublishedEventDto handleMessage(String messageId, Throwable throwable, String topic, PubsubMessage message) {
         var responseBuilder = PublishedEventDto.builder();
         if (throwable != null) {
             if (throwable instanceof CompletionException exception && throwable.getCause() != null) {
                 throwable = exception;
             }
+            if (eventSpill.isSpillable(throwable) && eventSpill.spill(topic, message)) {
+                log.warn("Unable to publish Pub/Sub message, spilled it for a later publish. message:[{}], error:[{}].",
+                        message, throwable.getMessage());
+                return spilled();
+            }
             log.error("Unable to publish Pub/Sub message due to error. message:[{}], error:[{}].", message, throwable, throwable);
             responseBuilder.errorReason(throwable.getMessage());
         } else {
@@ -62,23 +162,4 @@ public class EventPublisherImpl implements EventPublisher {
         }
         return responseBuilder.build();
     }
-
-    private PubsubMessage toPubsubMessage(RequestEventDto event) {
-        byte[] jsonMessageBytes = toJsonBytes(event);
-
-        return PubsubMessage.newBuilder()
-                .setData(copyFrom(jsonMessageBytes))
-                .putAttributes("eventId", event.getId())
-                .putAttributes("eventType", event.getType())
-                .build();
-    }
-
-    private byte[] toJsonBytes(RequestEventDto event) {
-        try {
-            return objectMapper.writeValueAsBytes(event);
-        } catch (JsonProcessingException e) {
-            log.error("Unable write event.", e);
-            throw new RuntimeException(e);
-        }
-    }
 }
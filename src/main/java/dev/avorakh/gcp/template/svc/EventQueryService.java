@@ -0,0 +1,100 @@
+package dev.avorakh.gcp.template.svc;
+
+import static dev.avorakh.gcp.template.config.PostProcessingExecutorConfig.POST_PROCESSING_EXECUTOR;
+import static java.time.ZoneOffset.UTC;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageDto;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventMessageSummary;
+import dev.avorakh.gcp.template.model.EventPageDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+
+/**
+ * Read side of {@code event_messages}. Queries run on the post-processing executor, so neither servlet nor event
+ * loop threads wait for the database. Lookups of a single event go through the {@link EventMessageCache} first.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventQueryService {
+
+    EventMessageRepository eventMessageRepository;
+    EventMessageCache eventMessageCache;
+
+    @Qualifier(POST_PROCESSING_EXECUTOR)
+    Executor postProcessingExecutor;
+
+    /**
+     * Listings without {@code from} only cover this period before {@code to}, or before now without {@code to}, so
+     * they only scan a few partitions.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.events.read.lookback:7d}")
+    Duration lookback;
+
+    @NonFinal
+    @Setter
+    @Value("${app.events.read.max-page-size:1000}")
+    int maxPageSize;
+
+    public CompletableFuture<Optional<EventMessageDto>> findById(UUID id) {
+        return readThrough(eventMessageCache.getById(id), () -> eventMessageRepository.findFirstByIdOrderByCreatedDesc(id));
+    }
+
+    public CompletableFuture<Optional<EventMessageDto>> findByMessageId(String messageId) {
+        return readThrough(eventMessageCache.getByMessageId(messageId), () -> eventMessageRepository.findFirstByMessageId(messageId));
+    }
+
+    /**
+     * @param limit page size, capped at {@code app.events.read.max-page-size}
+     */
+    public CompletableFuture<EventPageDto> findEvents(EventMessageFilter filter, EventCursor after, int limit) {
+        int pageSize = Math.clamp(limit, 1, maxPageSize);
+        OffsetDateTime until = filter.to() != null ? filter.to() : OffsetDateTime.now(UTC);
+        EventMessageFilter boundedFilter = filter.from() != null ? filter
+                : filter.toBuilder().from(until.minus(lookback)).build();
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<EventMessageSummary> summaries = eventMessageRepository.findSummaries(boundedFilter, after, pageSize + 1);
+            if (summaries.size() <= pageSize) {
+                return new EventPageDto(summaries, null);
+            }
+            List<EventMessageSummary> page = summaries.subList(0, pageSize);
+            return new EventPageDto(List.copyOf(page), EventCursor.after(page.getLast()).encode());
+        }, postProcessingExecutor);
+    }
+
+    private CompletableFuture<Optional<EventMessageDto>> readThrough(Optional<EventMessageDto> cached,
+                                                                     Supplier<Optional<EventMessage>> lookup) {
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<EventMessageDto> stored = lookup.get().map(EventMessageDto::of);
+            stored.ifPresent(eventMessageCache::put);
+            return stored;
+        }, postProcessingExecutor);
+    }
+}
@@ -0,0 +1,44 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.google.pubsub.v1.PubsubMessage;
+
+/**
+ * Keeps messages that could not be published for a later publish, see {@link DiskEventSpill}.
+ */
+public interface EventSpill {
+
+    EventSpill DISABLED = new EventSpill() {
+
+        @Override
+        public boolean spill(String topic, PubsubMessage message) {
+            return false;
+        }
+
+        @Override
+        public boolean isSpillable(Throwable throwable) {
+            return false;
+        }
+
+        @Override
+        public boolean isSpilling(String topic) {
+            return false;
+        }
+    };
+
+    /**
+     * @return {@code true} if the message is stored and will be published later, {@code false} if the message has to
+     * be published now or answered as failed
+     */
+    boolean spill(String topic, PubsubMessage message);
+
+    /**
+     * @return {@code true} if the publish failure is transient, so a later publish of the message can succeed
+     */
+    boolean isSpillable(Throwable throwable);
+
+    /**
+     * @return {@code true} while Pub/Sub is considered unavailable for the topic and its new messages should be
+     * spilled right away
+     */
+    boolean isSpilling(String topic);
+}
@@ -0,0 +1,159 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+/**
+ * Publishes a newline-delimited JSON stream of events. Events are parsed one at a time and at most
+ * {@code app.stream.window-size} publishes are outstanding; results are written as one JSON line per event in
+ * input order as soon as the oldest outstanding publish completes, so memory use does not grow with the upload.
+ * <p>
+ * Every outstanding event holds an {@link EventAdmissionControl} permit. When the node is saturated the stream
+ * waits for its own oldest publish; an event that cannot be admitted with nothing outstanding is answered as rejected.
+ * <p>
+ * A line that is not a valid event ends the stream: the results of the events before it are written, followed by
+ * one failed line naming the parse error, and the rest of the upload is not read.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventStreamPublisher {
+
+    public static final String INVALID_EVENT_REASON = "Invalid event, the rest of the stream was not read: %s";
+
+    EventPublisher publisher;
+    EventAdmissionControl admissionControl;
+    ObjectReader eventReader;
+    ObjectWriter resultWriter;
+
+    @NonFinal
+    @Setter
+    @Value("${app.stream.window-size:256}")
+    int windowSize;
+
+    @NonFinal
+    @Setter
+    @Value("${app.stream.flush-every:64}")
+    int flushEvery;
+
+    public EventStreamPublisher(EventPublisher publisher, EventAdmissionControl admissionControl, ObjectMapper objectMapper) {
+        this.publisher = publisher;
+        this.admissionControl = admissionControl;
+        this.eventReader = objectMapper.readerFor(RequestEventDto.class);
+        this.resultWriter = objectMapper.writerFor(PublishedEventDto.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * @return number of events read from the stream
+     */
+    public long publish(InputStream events, OutputStream results) throws IOException {
+        Deque<CompletableFuture<PublishedEventDto>> window = new ArrayDeque<>(windowSize);
+        long count = 0;
+        long written = 0;
+        String parseError = null;
+
+        try (MappingIterator<RequestEventDto> iterator = eventReader.readValues(events)) {
+            while (true) {
+                RequestEventDto event;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    event = iterator.nextValue();
+                } catch (JsonProcessingException e) {
+                    log.warn("Unable to parse event stream, stopping it. events:[{}], error:[{}].", count, e.getOriginalMessage());
+                    parseError = INVALID_EVENT_REASON.formatted(e.getOriginalMessage());
+                    break;
+                }
+                EventIds.assignIdIfMissing(event);
+                count++;
+
+                while (window.size() >= windowSize) {
+                    written = write(window.poll(), results, written);
+                }
+
+                Optional<EventAdmissionControl.Permit> permit = admissionControl.tryAcquire(List.of(event));
+                while (permit.isEmpty() && !window.isEmpty()) {
+                    written = write(window.poll(), results, written);
+                    permit = admissionControl.tryAcquire(List.of(event));
+                }
+
+                window.add(permit
+                        .map(acquired -> publishSafely(event).whenComplete((result, throwable) -> acquired.release()))
+                        .orElseGet(() -> CompletableFuture.completedFuture(failed(EventAdmissionControl.REJECTED_REASON))));
+            }
+        } finally {
+            while (!window.isEmpty()) {
+                written = write(window.poll(), results, written);
+            }
+            if (parseError != null) {
+                written = write(CompletableFuture.completedFuture(failed(parseError)), results, written);
+            }
+            results.flush();
+        }
+
+        log.info("Published event stream. events:[{}].", count);
+        return count;
+    }
+
+    private CompletableFuture<PublishedEventDto> publishSafely(RequestEventDto event) {
+        try {
+            return publisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private long write(CompletableFuture<PublishedEventDto> future, OutputStream results, long written) throws IOException {
+        PublishedEventDto result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            result = failed(cause.getMessage());
+        }
+
+        resultWriter.writeValue(results, result);
+        results.write('\n');
+
+        if (++written % flushEvery == 0) {
+            results.flush();
+        }
+        return written;
+    }
+
+    private static PublishedEventDto failed(String errorReason) {
+        return PublishedEventDto.builder()
+                .errorReason(errorReason)
+                .build();
+    }
+}
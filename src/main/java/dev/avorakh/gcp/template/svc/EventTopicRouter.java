@@ -0,0 +1,72 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import org.springframework.stereotype.Service;
+import org.springframework.util.PatternMatchUtils;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Route;
+
+/**
+ * Resolves the topic of an event from its type: an exact route first, then the wildcard routes in the
+ * configured order and finally the default topic.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventTopicRouter {
+
+    String defaultTopic;
+    Map<String, String> exactRoutes;
+    List<Route> wildcardRoutes;
+
+    public EventTopicRouter(PubSubPublisherProperties properties) {
+        this.defaultTopic = properties.topic();
+        this.exactRoutes = properties.routes().stream()
+                .filter(route -> !isWildcard(route))
+                .collect(Collectors.toUnmodifiableMap(Route::eventType, Route::topic, (first, second) -> first));
+        this.wildcardRoutes = properties.routes().stream()
+                .filter(EventTopicRouter::isWildcard)
+                .toList();
+    }
+
+    public String topicFor(String eventType) {
+        if (eventType == null) {
+            return defaultTopic;
+        }
+
+        String topic = exactRoutes.get(eventType);
+        if (topic != null) {
+            return topic;
+        }
+
+        for (Route route : wildcardRoutes) {
+            if (PatternMatchUtils.simpleMatch(route.eventType(), eventType)) {
+                return route.topic();
+            }
+        }
+        return defaultTopic;
+    }
+
+    /**
+     * @return the default topic followed by every routed topic
+     */
+    public Set<String> topics() {
+        var topics = new LinkedHashSet<String>();
+        topics.add(defaultTopic);
+        exactRoutes.values().forEach(topics::add);
+        wildcardRoutes.forEach(route -> topics.add(route.topic()));
+        return topics;
+    }
+
+    private static boolean isWildcard(Route route) {
+        return route.eventType().contains("*");
+    }
+}
@@ -0,0 +1,249 @@
+package dev.avorakh.gcp.template.svc;
+
+import static dev.avorakh.gcp.template.config.PostProcessingExecutorConfig.POST_PROCESSING_EXECUTOR;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PostConstruct;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+
+/**
+ * Deduplicates events by id in front of the {@link #PUBLISHER_DELEGATE delegate} publisher. The result of every
+ * event id is kept in a bounded cache for {@code app.publish.deduplication.ttl}; concurrent duplicates wait for the
+ * same in-flight future. Ids that are not cached are looked up in {@code event_messages} before publishing, a stored
+ * row is answered from the database. Failed publishes are not cached, so a retry publishes again.
+ * <p>
+ * In {@code direct} mode a stored row without {@code messageId} is a persisted failure and is published again,
+ * unless the publish was spilled to disk. In {@code outbox} mode such a row is an accepted event the relay has not
+ * published yet.
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.publish.deduplication.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotentEventPublisher implements EventPublisher {
+
+    public static final String PUBLISHER_DELEGATE = "eventPublisherDelegate";
+
+    @Qualifier(PUBLISHER_DELEGATE)
+    EventPublisher delegate;
+    EventMessageRepository eventMessageRepository;
+    @Qualifier(POST_PROCESSING_EXECUTOR)
+    Executor postProcessingExecutor;
+    EventMetrics eventMetrics;
+
+    @NonFinal
+    @Setter
+    @Value("${app.publish.deduplication.maximum-size:100000}")
+    long maximumSize;
+
+    @NonFinal
+    @Setter
+    @Value("${app.publish.deduplication.ttl:10m}")
+    Duration ttl;
+
+    @NonFinal
+    @Setter
+    @Value("${app.publish.deduplication.check-repository:true}")
+    boolean checkRepository;
+
+    /**
+     * Only rows created within the lookback are checked, so the lookup scans the latest partitions only.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.publish.deduplication.repository-lookback:1d}")
+    Duration repositoryLookback;
+
+    @NonFinal
+    @Setter
+    @Value("${app.publish.mode:direct}")
+    String publishMode = "direct";
+
+    @NonFinal
+    Cache<String, CompletableFuture<PublishedEventDto>> results;
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<PublishedEventDto> publishEvent(RequestEventDto event) {
+
+        var result = new CompletableFuture<PublishedEventDto>();
+        CompletableFuture<PublishedEventDto> existing = results.asMap().putIfAbsent(event.getId(), result);
+        if (existing != null) {
+            eventMetrics.recordDuplicate("cache");
+            return existing;
+        }
+
+        findStored(List.of(event))
+                .thenCompose(stored -> stored.containsKey(event.getId())
+                        ? CompletableFuture.completedFuture(stored.get(event.getId()))
+                        : delegate.publishEvent(event))
+                .whenComplete((published, throwable) -> complete(event.getId(), result, published, throwable));
+
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<List<PublishedEventDto>> publishEvents(List<RequestEventDto> events) {
+
+        List<CompletableFuture<PublishedEventDto>> futures = new ArrayList<>(events.size());
+        List<RequestEventDto> owned = new ArrayList<>();
+        List<CompletableFuture<PublishedEventDto>> ownedResults = new ArrayList<>();
+
+        for (RequestEventDto event : events) {
+            var result = new CompletableFuture<PublishedEventDto>();
+            CompletableFuture<PublishedEventDto> existing = results.asMap().putIfAbsent(event.getId(), result);
+            if (existing != null) {
+                eventMetrics.recordDuplicate("cache");
+                futures.add(existing);
+            } else {
+                futures.add(result);
+                owned.add(event);
+                ownedResults.add(result);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            findStored(owned)
+                    .thenCompose(stored -> publishNotStored(owned, stored))
+                    .whenComplete((published, throwable) -> {
+                        for (int i = 0; i < owned.size(); i++) {
+                            complete(owned.get(i).getId(), ownedResults.get(i),
+                                     published == null ? null : published.get(i), throwable);
+                        }
+                    });
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .toList());
+    }
+
+    private CompletableFuture<List<PublishedEventDto>> publishNotStored(List<RequestEventDto> events,
+                                                                        Map<String, PublishedEventDto> stored) {
+        List<RequestEventDto> notStored = events.stream()
+                .filter(event -> !stored.containsKey(event.getId()))
+                .toList();
+
+        CompletableFuture<List<PublishedEventDto>> published = notStored.isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : delegate.publishEvents(notStored);
+
+        return published.thenApply(publishedNotStored -> {
+            var iterator = publishedNotStored.iterator();
+            return events.stream()
+                    .map(event -> stored.containsKey(event.getId()) ? stored.get(event.getId()) : iterator.next())
+                    .toList();
+        });
+    }
+
+    private CompletableFuture<Map<String, PublishedEventDto>> findStored(List<RequestEventDto> events) {
+        if (!checkRepository) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        List<UUID> ids = events.stream()
+                .map(event -> toUuid(event.getId()))
+                .flatMap(Optional::stream)
+                .toList();
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> lookUpStored(ids), postProcessingExecutor);
+        } catch (RejectedExecutionException e) {
+            // completes the cached results of the events exceptionally, so their ids are not stuck in the cache
+            log.warn("Post-processing executor rejected the repository lookup. events:[{}].", ids.size());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Map<String, PublishedEventDto> lookUpStored(List<UUID> ids) {
+        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minus(repositoryLookback);
+        Map<String, PublishedEventDto> stored = eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(ids, since).stream()
+                .filter(this::isAccepted)
+                .collect(Collectors.toMap(eventMessage -> eventMessage.getId().toString(),
+                                          IdempotentEventPublisher::toPublishedEvent,
+                                          (first, second) -> first));
+        stored.keySet().forEach(id -> eventMetrics.recordDuplicate("repository"));
+        return stored;
+    }
+
+    private void complete(String id, CompletableFuture<PublishedEventDto> result, PublishedEventDto published, Throwable throwable) {
+        if (throwable != null || !published.success()) {
+            results.asMap().remove(id, result);
+        }
+        if (throwable != null) {
+            result.completeExceptionally(throwable);
+        } else {
+            result.complete(published);
+        }
+    }
+
+    private boolean isAccepted(EventMessage eventMessage) {
+        return eventMessage.getMessageId() != null
+                || "outbox".equals(publishMode)
+                || EventMessageMapper.isSpilled(eventMessage);
+    }
+
+    /**
+     * A stored row without {@code messageId} is an accepted outbox or spilled event that is not published yet.
+     */
+    private static PublishedEventDto toPublishedEvent(EventMessage eventMessage) {
+        return PublishedEventDto.builder()
+                .success(true)
+                .messageId(eventMessage.getMessageId())
+                .build();
+    }
+
+    private static Optional<UUID> toUuid(String id) {
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
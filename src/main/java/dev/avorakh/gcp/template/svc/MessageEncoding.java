@@ -0,0 +1,29 @@
+package dev.avorakh.gcp.template.svc;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Encoding of the Pub/Sub message data, sent in the {@code contentType} attribute and, for the binary encodings,
+ * the schema of the data in the {@code schema} attribute.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MessageEncoding {
+
+    /**
+     * The whole event ({@code id}, {@code type}, {@code payload}) as JSON.
+     */
+    JSON("application/json", null),
+    /**
+     * Only the payload as a {@code google.protobuf.Value}; numbers are doubles.
+     */
+    PROTOBUF("application/protobuf", "google.protobuf.Value"),
+    /**
+     * Only the payload, Avro binary encoded with the schema {@code avro/json-value.avsc}.
+     */
+    AVRO("avro/binary", "dev.avorakh.gcp.template.avro.JsonValue");
+
+    private final String contentType;
+    private final String schema;
+}
@@ -0,0 +1,45 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import dev.avorakh.gcp.template.config.MessageEncodingProperties;
+
+/**
+ * Resolves the message encoding of an event type, see {@link MessageEncodingProperties}.
+ */
+@Service
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MessageEncodingResolver {
+
+    static final MessageEncodingResolver JSON = new MessageEncodingResolver(MessageEncoding.JSON, Map.of(), Map.of(), null);
+
+    MessageEncoding defaultEncoding;
+    Map<String, MessageEncoding> topics;
+    Map<String, MessageEncoding> eventTypes;
+    EventTopicRouter topicRouter;
+
+    @Autowired
+    public MessageEncodingResolver(MessageEncodingProperties properties, EventTopicRouter topicRouter) {
+        this(properties.defaultEncoding(), properties.topics(), properties.eventTypes(), topicRouter);
+    }
+
+    public MessageEncoding encodingFor(String eventType) {
+        MessageEncoding encoding = eventType == null ? null : eventTypes.get(eventType);
+        if (encoding == null && !topics.isEmpty()) {
+            String topic = topicRouter.topicFor(eventType);
+            encoding = topics.get(topic);
+            if (encoding == null) {
+                encoding = topics.get(topic.substring(topic.lastIndexOf('/') + 1));
+            }
+        }
+        return encoding == null ? defaultEncoding : encoding;
+    }
+}
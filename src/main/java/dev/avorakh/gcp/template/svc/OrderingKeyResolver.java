@@ -0,0 +1,58 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Ordering;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+/**
+ * Resolves the ordering key of an event: the explicit {@code orderingKey} or else the configured payload field.
+ * Without message ordering every key resolves to {@code null}, since the publisher rejects ordering keys then.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OrderingKeyResolver {
+
+    static final OrderingKeyResolver DISABLED = new OrderingKeyResolver(Ordering.DISABLED);
+
+    boolean enabled;
+    JsonPointer payloadPointer;
+
+    @Autowired
+    public OrderingKeyResolver(PubSubPublisherProperties properties) {
+        this(properties.ordering());
+    }
+
+    OrderingKeyResolver(Ordering ordering) {
+        this.enabled = ordering.enabled();
+        this.payloadPointer = StringUtils.hasText(ordering.payloadField()) ? toPointer(ordering.payloadField()) : null;
+    }
+
+    public String resolve(RequestEventDto event) {
+        if (!enabled) {
+            return null;
+        }
+        if (StringUtils.hasLength(event.getOrderingKey())) {
+            return event.getOrderingKey();
+        }
+        if (payloadPointer == null || event.getPayload() == null) {
+            return null;
+        }
+
+        JsonNode key = event.getPayload().at(payloadPointer);
+        return key.isValueNode() && !key.isNull() ? key.asText() : null;
+    }
+
+    private static JsonPointer toPointer(String payloadField) {
+        return JsonPointer.compile(payloadField.startsWith("/") ? payloadField : "/" + payloadField);
+    }
+}
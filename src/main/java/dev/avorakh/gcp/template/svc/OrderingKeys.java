@@ -0,0 +1,35 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@UtilityClass
+public class OrderingKeys {
+
+    /**
+     * A failed publish pauses its ordering key: the client rejects every later message with that key until
+     * {@code resumePublish} is called. Resumes the key as soon as the publish fails, so only the failed
+     * message is lost and the following ones of the key go through again. Other keys are never paused.
+     */
+    public static <T> CompletableFuture<T> resumeOnFailure(PubSubPublisherTemplate pubSubPublisherTemplate,
+                                                           String topic,
+                                                           PubsubMessage message,
+                                                           CompletableFuture<T> future) {
+        String orderingKey = message.getOrderingKey();
+        if (orderingKey.isEmpty()) {
+            return future;
+        }
+        return future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.warn("Resuming publish of ordering key after failure. topic:[{}], orderingKey:[{}].", topic, orderingKey);
+                pubSubPublisherTemplate.getPublisherFactory().createPublisher(topic).resumePublish(orderingKey);
+            }
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package dev.avorakh.gcp.template.svc;
+
+import static dev.avorakh.gcp.template.config.PostProcessingExecutorConfig.POST_PROCESSING_EXECUTOR;
+import static dev.avorakh.gcp.template.svc.EventMessageMapper.toEventMessage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+
+/**
+ * Transactional outbox variant of the publisher: the event is only stored in {@code event_messages} without
+ * {@code messageId} and {@link OutboxRelay} publishes it to Pub/Sub later. A successful response therefore
+ * means the event is accepted, not yet published, and carries no {@code messageId}.
+ */
+@Slf4j
+@Service
+@Qualifier(IdempotentEventPublisher.PUBLISHER_DELEGATE)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.publish.mode", havingValue = "outbox")
+public class OutboxEventPublisher implements EventPublisher {
+
+    EventMessageRepository eventMessageRepository;
+    @Qualifier(POST_PROCESSING_EXECUTOR)
+    Executor postProcessingExecutor;
+
+    /**
+     * Batches of at least this many events are stored with {@code COPY} instead of batched inserts, 0 disables it.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.copy-threshold:100}")
+    int copyThreshold;
+
+    @Override
+    public CompletableFuture<PublishedEventDto> publishEvent(RequestEventDto event) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    eventMessageRepository.save(toEventMessage(event));
+                    return accepted();
+                }, postProcessingExecutor)
+                .exceptionally(throwable -> toFailedEvent(1, throwable));
+    }
+
+    @Override
+    public CompletableFuture<List<PublishedEventDto>> publishEvents(List<RequestEventDto> events) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    List<EventMessage> eventMessages = events.stream()
+                            .map(EventMessageMapper::toEventMessage)
+                            .toList();
+                    if (copyThreshold > 0 && eventMessages.size() >= copyThreshold) {
+                        eventMessageRepository.copyAll(eventMessages);
+                    } else {
+                        eventMessageRepository.saveAll(eventMessages);
+                    }
+                    return Collections.nCopies(events.size(), accepted());
+                }, postProcessingExecutor)
+                .exceptionally(throwable -> Collections.nCopies(events.size(), toFailedEvent(events.size(), throwable)));
+    }
+
+    private static PublishedEventDto accepted() {
+        return PublishedEventDto.builder()
+                .success(true)
+                .build();
+    }
+
+    private static PublishedEventDto toFailedEvent(int count, Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        log.error("Unable to store events in outbox. count:[{}], error:[{}].", count, throwable, throwable);
+        return PublishedEventDto.builder()
+                .errorReason(throwable.getMessage())
+                .build();
+    }
+}
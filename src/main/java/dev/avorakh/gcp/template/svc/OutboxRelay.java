@@ -0,0 +1,194 @@
+package dev.avorakh.gcp.template.svc;
+
+import static java.time.OffsetDateTime.now;
+import static java.time.ZoneOffset.UTC;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+
+/**
+ * Publishes outbox rows ({@code event_messages} without {@code messageId}) to Pub/Sub.
+ * <p>
+ * Every poll claims a batch in a short transaction: the rows are locked with {@code FOR UPDATE SKIP LOCKED} and
+ * leased until {@code now + app.publish.outbox.lease}, so several instances can relay in parallel without publishing
+ * a row twice. The batch is then published without holding a transaction, row locks or a pooled connection, and the
+ * returned {@code messageId}s are stored in a second short transaction. Rows whose publish failed stay unpublished
+ * and are claimed again by a later poll once their lease ran out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.publish.mode", havingValue = "outbox")
+public class OutboxRelay {
+
+    EventMessageRepository eventMessageRepository;
+    PubSubPublisherTemplate pubSubPublisherTemplate;
+    PubsubMessageConverter pubsubMessageConverter;
+    TransactionOperations transactionOperations;
+    ObjectMapper objectMapper;
+    EventTopicRouter topicRouter;
+
+    @NonFinal
+    @Setter
+    @Value("${app.publish.outbox.batch-size:500}")
+    int batchSize;
+
+    @NonFinal
+    @Setter
+    @Value("${app.publish.outbox.publish-timeout-ms:10000}")
+    long publishTimeoutMs;
+
+    /**
+     * How long a claimed row belongs to this relay; must be longer than {@code publish-timeout-ms}, otherwise
+     * another instance may publish the row again while this one is still waiting for Pub/Sub.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.publish.outbox.lease:30s}")
+    Duration lease;
+
+    /**
+     * Age of the oldest row that is still relayed; it limits the scan to the latest partitions of {@code event_messages}.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.publish.outbox.lookback:7d}")
+    Duration lookback;
+
+    @Scheduled(fixedDelayString = "${app.publish.outbox.poll-interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * @return the number of published rows
+     */
+    int relayBatch() {
+        List<EventMessage> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<String>> futures = claimed.stream()
+                .map(this::publish)
+                .toList();
+
+        awaitAll(futures);
+
+        List<EventMessage> published = new ArrayList<>(claimed.size());
+        for (int i = 0; i < claimed.size(); i++) {
+            CompletableFuture<String> future = futures.get(i);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                EventMessage eventMessage = claimed.get(i);
+                eventMessage.setMessageId(future.join());
+                published.add(eventMessage);
+            }
+        }
+        markPublished(published);
+
+        if (published.size() < claimed.size()) {
+            log.warn("Unable to relay some outbox event messages, they will be retried. claimed:[{}], published:[{}].",
+                    claimed.size(), published.size());
+        } else {
+            log.debug("Relayed outbox event messages. count:[{}].", published.size());
+        }
+        return published.size();
+    }
+
+    private List<EventMessage> claim() {
+        List<EventMessage> claimed = transactionOperations.execute(status -> {
+            OffsetDateTime now = now(UTC);
+            OffsetDateTime since = now.minus(lookback);
+            List<EventMessage> pending = eventMessageRepository.findUnclaimedForUpdate(since, now, batchSize);
+            if (!pending.isEmpty()) {
+                eventMessageRepository.claim(pending.stream().map(EventMessage::getId).toList(), since, now.plus(lease));
+            }
+            return pending;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void markPublished(List<EventMessage> published) {
+        if (published.isEmpty()) {
+            return;
+        }
+        OffsetDateTime now = now(UTC);
+        transactionOperations.executeWithoutResult(status -> published.forEach(eventMessage -> {
+            eventMessage.setModified(now);
+            eventMessageRepository.markPublished(eventMessage.getId(), eventMessage.getCreated(),
+                                                 eventMessage.getMessageId(), now);
+        }));
+    }
+
+    /**
+     * A row that cannot be converted or whose publish throws right away fails on its own, the other rows of the
+     * claimed batch are still published and marked.
+     */
+    private CompletableFuture<String> publish(EventMessage eventMessage) {
+        try {
+            RequestEventDto event = toRequestEvent(eventMessage);
+            String topic = topicRouter.topicFor(event.getType());
+            PubsubMessage message = pubsubMessageConverter.toPubsubMessage(event);
+            return OrderingKeys.resumeOnFailure(pubSubPublisherTemplate, topic, message,
+                                                pubSubPublisherTemplate.publish(topic, message));
+        } catch (RuntimeException e) {
+            log.error("Unable to publish outbox event message. id:[{}], error:[{}].", eventMessage.getId(), e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private RequestEventDto toRequestEvent(EventMessage eventMessage) {
+        Map<String, Object> eventData = eventMessage.getEventData();
+        return new RequestEventDto(
+                (String) eventData.get("id"),
+                (String) eventData.get("type"),
+                objectMapper.valueToTree(eventData.get("payload")),
+                (String) eventData.get("orderingKey")
+        );
+    }
+
+    private void awaitAll(List<CompletableFuture<String>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            log.error("Unable to publish outbox event message. error:[{}].", e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for outbox publishes. timeoutMs:[{}].", publishTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Encodes an event payload as {@code google.protobuf.Value}, the protobuf representation of a JSON value.
+ */
+@UtilityClass
+public class ProtobufPayloadEncoder {
+
+    public static ByteString encode(JsonNode payload) {
+        return toValue(payload).toByteString();
+    }
+
+    static Value toValue(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+        }
+        if (node.isBoolean()) {
+            return Value.newBuilder().setBoolValue(node.booleanValue()).build();
+        }
+        if (node.isNumber()) {
+            return Value.newBuilder().setNumberValue(node.doubleValue()).build();
+        }
+        if (node.isArray()) {
+            var list = ListValue.newBuilder();
+            node.forEach(element -> list.addValues(toValue(element)));
+            return Value.newBuilder().setListValue(list).build();
+        }
+        if (node.isObject()) {
+            var struct = Struct.newBuilder();
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                struct.putFields(field.getKey(), toValue(field.getValue()));
+            }
+            return Value.newBuilder().setStructValue(struct).build();
+        }
+        return Value.newBuilder().setStringValue(node.asText()).build();
+    }
+}
@@ -0,0 +1,213 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.google.api.gax.rpc.ApiException;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+import dev.avorakh.gcp.template.config.PublishRetryProperties;
+
+/**
+ * Retries publishes that failed with a retryable gRPC status after a random delay with exponential growth
+ * ("full jitter"). Delays run on {@link CompletableFuture#delayedExecutor}, no thread waits for a retry.
+ * A retry is only started within the deadline of the first attempt and while the retry budget has tokens left.
+ * Every attempt is bounded by the time left until the deadline; an attempt that runs past it fails with
+ * {@code DEADLINE_EXCEEDED}.
+ * <p>
+ * Reports retries in {@code app.events.publish.retries} by {@code code}, abandoned retries in
+ * {@code app.events.publish.retries.exhausted} by {@code reason} ({@code attempts}, {@code deadline} or
+ * {@code budget}) and the remaining budget in {@code app.events.publish.retry.budget}.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PublishRetryExecutor {
+
+    static final String RETRIES_COUNTER = "app.events.publish.retries";
+    static final String EXHAUSTED_COUNTER = "app.events.publish.retries.exhausted";
+    static final String BUDGET_GAUGE = "app.events.publish.retry.budget";
+
+    boolean enabled;
+    int maxAttempts;
+    long initialBackoffNanos;
+    long maxBackoffNanos;
+    double multiplier;
+    long deadlineNanos;
+    Set<Status.Code> retryableCodes;
+    RetryBudget budget;
+    MeterRegistry meterRegistry;
+
+    public PublishRetryExecutor(PublishRetryProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.maxAttempts = properties.maxAttempts();
+        this.initialBackoffNanos = properties.initialBackoff().toNanos();
+        this.maxBackoffNanos = properties.maxBackoff().toNanos();
+        this.multiplier = properties.multiplier();
+        this.deadlineNanos = properties.deadline().toNanos();
+        this.retryableCodes = properties.retryableCodes();
+        this.budget = new RetryBudget(properties.budget());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder(BUDGET_GAUGE, budget, RetryBudget::tokens)
+                .description("Retries of failed publishes that are currently allowed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the first attempt on the calling thread; an exception thrown by it is not retried.
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+
+        budget.deposit();
+        long deadline = System.nanoTime() + deadlineNanos;
+        var result = new CompletableFuture<T>();
+        withinDeadline(attempt.get(), deadline)
+                .whenComplete((value, throwable) -> onAttempt(attempt, 1, deadline, result, value, throwable));
+        return result;
+    }
+
+    /**
+     * @return {@code true} if the failure has one of the retryable status codes, whether retries are enabled or not
+     */
+    public boolean isRetryable(Throwable throwable) {
+        return retryableCodes.contains(statusCode(throwable));
+    }
+
+    private <T> void onAttempt(Supplier<CompletableFuture<T>> attempt,
+                               int attempts,
+                               long deadline,
+                               CompletableFuture<T> result,
+                               T value,
+                               Throwable throwable) {
+        if (throwable == null) {
+            result.complete(value);
+            return;
+        }
+
+        if (throwable instanceof TimeoutException) {
+            throwable = Status.DEADLINE_EXCEEDED
+                    .withDescription("Publish did not complete within the retry deadline")
+                    .withCause(throwable)
+                    .asRuntimeException();
+        }
+
+        Status.Code code = statusCode(throwable);
+        if (!retryableCodes.contains(code)) {
+            result.completeExceptionally(throwable);
+            return;
+        }
+
+        long backoff = backoff(attempts);
+        String exhausted = attempts >= maxAttempts ? "attempts"
+                : System.nanoTime() + backoff >= deadline ? "deadline"
+                : !budget.tryWithdraw() ? "budget"
+                : null;
+        if (exhausted != null) {
+            meterRegistry.counter(EXHAUSTED_COUNTER, "reason", exhausted).increment();
+            result.completeExceptionally(throwable);
+            return;
+        }
+
+        meterRegistry.counter(RETRIES_COUNTER, "code", code.name()).increment();
+        log.debug("Retrying publish. attempt:[{}], code:[{}], backoffMs:[{}].", attempts + 1, code, TimeUnit.NANOSECONDS.toMillis(backoff));
+
+        CompletableFuture.delayedExecutor(backoff, TimeUnit.NANOSECONDS).execute(() -> {
+            CompletableFuture<T> retry;
+            try {
+                retry = attempt.get();
+            } catch (RuntimeException e) {
+                retry = CompletableFuture.failedFuture(e);
+            }
+            withinDeadline(retry, deadline).whenComplete((retryValue, retryThrowable) ->
+                    onAttempt(attempt, attempts + 1, deadline, result, retryValue, retryThrowable));
+        });
+    }
+
+    /**
+     * Times out a copy of the attempt, the publish future itself is left to the client.
+     */
+    private static <T> CompletableFuture<T> withinDeadline(CompletableFuture<T> attempt, long deadline) {
+        var bounded = new CompletableFuture<T>();
+        attempt.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                bounded.complete(value);
+            } else {
+                bounded.completeExceptionally(throwable);
+            }
+        });
+        return bounded.orTimeout(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private long backoff(int attempts) {
+        double cap = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(multiplier, attempts - 1));
+        return ThreadLocalRandom.current().nextLong((long) cap + 1);
+    }
+
+    static Status.Code statusCode(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException apiException) {
+                return Status.Code.valueOf(apiException.getStatusCode().getCode().name());
+            }
+        }
+        return Status.fromThrowable(throwable).getCode();
+    }
+
+    static final class RetryBudget {
+
+        private final double ratio;
+        private final double minRetriesPerNano;
+        private final double maxTokens;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        RetryBudget(PublishRetryProperties.Budget budget) {
+            this.ratio = budget.ratio();
+            this.minRetriesPerNano = budget.minRetriesPerSecond() / TimeUnit.SECONDS.toNanos(1);
+            this.maxTokens = budget.maxTokens();
+            this.tokens = Math.min(budget.minRetriesPerSecond(), maxTokens);
+        }
+
+        synchronized void deposit() {
+            refill();
+            tokens = Math.min(maxTokens, tokens + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized double tokens() {
+            refill();
+            return tokens;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(maxTokens, tokens + (now - refilledAt) * minRetriesPerNano);
+            refilledAt = now;
+        }
+    }
+}
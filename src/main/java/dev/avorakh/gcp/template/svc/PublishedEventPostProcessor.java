@@ -3,7 +3,33 @@ package dev.avorakh.gcp.template.svc;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 
+/**
+ * Stage of the {@link PublishedEventPostProcessorChain}. Stages run in {@link org.springframework.core.annotation.Order}
+ * order; synchronous stages are part of the response, asynchronous ones run in the background and their result is ignored.
+ */
 public interface PublishedEventPostProcessor {
 
     PublishedEventDto process(RequestEventDto event, PublishedEventDto publishedEventDto);
+
+    default boolean isAsync() {
+        return false;
+    }
+
+    default Scope scope() {
+        return Scope.ALL;
+    }
+
+    enum Scope {
+        SUCCESS,
+        FAILURE,
+        ALL;
+
+        public boolean matches(PublishedEventDto publishedEventDto) {
+            return switch (this) {
+                case SUCCESS -> publishedEventDto.success();
+                case FAILURE -> !publishedEventDto.success();
+                case ALL -> true;
+            };
+        }
+    }
 }
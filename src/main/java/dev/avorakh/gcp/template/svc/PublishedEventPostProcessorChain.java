@@ -0,0 +1,85 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static dev.avorakh.gcp.template.config.PostProcessingExecutorConfig.POST_PROCESSING_EXECUTOR;
+
+/**
+ * Runs the {@link PublishedEventPostProcessor} stages that apply to the publish result. Asynchronous stages are
+ * started first and in parallel, then the synchronous stages run in order on the post-processing executor, each
+ * one receiving the result of the previous one. When no synchronous stage applies the publish result is returned
+ * without leaving the calling thread.
+ * <p>
+ * A stage rejected by a saturated post-processing executor fails like a stage that threw.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PublishedEventPostProcessorChain {
+
+    List<PublishedEventPostProcessor> postProcessors;
+    @Qualifier(POST_PROCESSING_EXECUTOR)
+    Executor postProcessingExecutor;
+
+    public CompletableFuture<PublishedEventDto> process(RequestEventDto event, PublishedEventDto publishedEventDto) {
+
+        List<PublishedEventPostProcessor> applicable = postProcessors.stream()
+                .filter(postProcessor -> postProcessor.scope().matches(publishedEventDto))
+                .toList();
+
+        applicable.stream()
+                .filter(PublishedEventPostProcessor::isAsync)
+                .forEach(postProcessor -> processAsync(postProcessor, event, publishedEventDto));
+
+        List<PublishedEventPostProcessor> sync = applicable.stream()
+                .filter(postProcessor -> !postProcessor.isAsync())
+                .toList();
+
+        if (sync.isEmpty()) {
+            return CompletableFuture.completedFuture(publishedEventDto);
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> processSync(sync, event, publishedEventDto), postProcessingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Post-processing executor rejected the event. eventId:[{}].", event.getId());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private PublishedEventDto processSync(List<PublishedEventPostProcessor> sync, RequestEventDto event, PublishedEventDto publishedEventDto) {
+        PublishedEventDto result = publishedEventDto;
+        for (PublishedEventPostProcessor postProcessor : sync) {
+            result = postProcessor.process(event, result);
+        }
+        return result;
+    }
+
+    private void processAsync(PublishedEventPostProcessor postProcessor, RequestEventDto event, PublishedEventDto publishedEventDto) {
+        CompletableFuture<Void> processed;
+        try {
+            processed = CompletableFuture.runAsync(() -> postProcessor.process(event, publishedEventDto), postProcessingExecutor);
+        } catch (RejectedExecutionException e) {
+            processed = CompletableFuture.failedFuture(e);
+        }
+        processed.exceptionally(throwable -> {
+            log.error("Asynchronous post processing failed. postProcessor:[{}], eventId:[{}], error:[{}].",
+                      postProcessor.getClass().getSimpleName(), event.getId(), throwable, throwable);
+            return null;
+        });
+    }
+}
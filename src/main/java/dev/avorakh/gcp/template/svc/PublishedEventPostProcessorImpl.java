@@ -1,56 +1,77 @@
 package dev.avorakh.gcp.template.svc;
 
-import static java.time.OffsetDateTime.now;
-import static java.time.ZoneOffset.UTC;
-
-import java.util.Map;
+import static dev.avorakh.gcp.template.svc.EventMessageMapper.toEventMessage;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.EventMessageDto;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 import dev.avorakh.gcp.template.repository.EventMessageRepository;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.persistence.mode", havingValue = "direct", matchIfMissing = true)
 public class PublishedEventPostProcessorImpl implements PublishedEventPostProcessor{
 
     EventMessageRepository eventMessageRepository;
+    EventMetrics eventMetrics;
+    EventMessageCache eventMessageCache;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.async:false}")
+    boolean async;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.scope:all}")
+    Scope scope = Scope.ALL;
 
     @Override
     public PublishedEventDto process(RequestEventDto event, PublishedEventDto publishedEventDto) {
 
         EventMessage eventMessage = toEventMessage(event, publishedEventDto);
 
-        eventMessageRepository.save(eventMessage);
+        try {
+            eventMetrics.recordPersistence("direct", () -> eventMessageRepository.save(eventMessage));
+        } catch (DataIntegrityViolationException e) {
+            // a client retry of an event id that was already stored, published or as a failure
+            log.info("Event message is already stored. eventId:[{}], error:[{}].", event.getId(), e.getMessage());
+            eventMetrics.recordDuplicate("insert");
+            if (publishedEventDto.messageId() != null) {
+                eventMessageRepository.updateMissingMessageId(eventMessage.getId(), publishedEventDto.messageId(),
+                                                              eventMessage.getModified());
+            }
+            return publishedEventDto;
+        }
+        eventMessageCache.put(EventMessageDto.of(eventMessage));
 
         return publishedEventDto;
 
     }
 
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
 
-    private EventMessage toEventMessage(RequestEventDto event, PublishedEventDto publishedEventDto) {
-        String now = now(UTC).toString();
-
-        var eventData = Map.<String, Object>of(
-                "id", event.getId(),
-                "type", event.getType(),
-                "payload", event.getPayload()
-        );
-
-        return EventMessage.builder()
-                .id(java.util.UUID.fromString(event.getId()))
-                .eventType(event.getType())
-                .eventData(eventData)
-                .messageId(publishedEventDto.messageId())
-                .created(now)
-                .modified(now)
-                .build();
+    @Override
+    public Scope scope() {
+        return scope;
     }
 }
@@ -0,0 +1,10 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+public interface PubsubMessageConverter {
+
+    PubsubMessage toPubsubMessage(RequestEventDto event);
+}
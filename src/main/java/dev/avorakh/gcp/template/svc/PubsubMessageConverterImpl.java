@@ -0,0 +1,84 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.model.RequestEventDto;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PubsubMessageConverterImpl implements PubsubMessageConverter {
+
+    public static final String CONTENT_TYPE_ATTRIBUTE = "contentType";
+    public static final String SCHEMA_ATTRIBUTE = "schema";
+
+    ObjectWriter eventWriter;
+    OrderingKeyResolver orderingKeyResolver;
+    MessageEncodingResolver encodingResolver;
+
+    public PubsubMessageConverterImpl(ObjectMapper objectMapper) {
+        this(objectMapper, OrderingKeyResolver.DISABLED);
+    }
+
+    public PubsubMessageConverterImpl(ObjectMapper objectMapper, OrderingKeyResolver orderingKeyResolver) {
+        this(objectMapper, orderingKeyResolver, MessageEncodingResolver.JSON);
+    }
+
+    @Autowired
+    public PubsubMessageConverterImpl(ObjectMapper objectMapper,
+                                      OrderingKeyResolver orderingKeyResolver,
+                                      MessageEncodingResolver encodingResolver) {
+        this.eventWriter = objectMapper.writerFor(RequestEventDto.class);
+        this.orderingKeyResolver = orderingKeyResolver;
+        this.encodingResolver = encodingResolver;
+    }
+
+    /**
+     * The encoded bytes are freshly allocated and never touched again, so they are wrapped without the
+     * defensive copy {@code ByteString.copyFrom} would make.
+     */
+    @Override
+    public PubsubMessage toPubsubMessage(RequestEventDto event) {
+        MessageEncoding encoding = encodingResolver.encodingFor(event.getType());
+        ByteString data = switch (encoding) {
+            case JSON -> UnsafeByteOperations.unsafeWrap(toJsonBytes(event));
+            case PROTOBUF -> ProtobufPayloadEncoder.encode(event.getPayload());
+            case AVRO -> UnsafeByteOperations.unsafeWrap(AvroPayloadEncoder.encode(event.getPayload()));
+        };
+
+        var message = PubsubMessage.newBuilder()
+                .setData(data)
+                .putAttributes("eventId", event.getId())
+                .putAttributes("eventType", event.getType())
+                .putAttributes(CONTENT_TYPE_ATTRIBUTE, encoding.getContentType());
+        if (encoding.getSchema() != null) {
+            message.putAttributes(SCHEMA_ATTRIBUTE, encoding.getSchema());
+        }
+
+        String orderingKey = orderingKeyResolver.resolve(event);
+        if (orderingKey != null) {
+            message.setOrderingKey(orderingKey);
+        }
+        return message.build();
+    }
+
+    byte[] toJsonBytes(RequestEventDto event) {
+        try {
+            return eventWriter.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.error("Unable write event.", e);
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package dev.avorakh.gcp.template.svc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.pubsub.v1.PubsubMessage;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of Pub/Sub messages on local disk, split into memory-mapped segment files of a fixed size.
+ * <p>
+ * A record is {@code [int length][int topicLength][topic][message]}; the length is written after the body, so a
+ * record torn by a crash ends the log instead of being read half-written. Readers start at the committed position
+ * stored in the {@code checkpoint} file, segments before it are deleted. Not thread-safe beyond the
+ * {@code synchronized} methods, a single process owns the directory.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SpillLog implements Closeable {
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    final Path directory;
+    final int segmentSize;
+    final MappedByteBuffer checkpoint;
+    final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    long writeSegment;
+    int writeOffset;
+    Position committed;
+    long backlog;
+    long backlogBytes;
+
+    public SpillLog(Path directory, int segmentSize) {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Spill segment size is too small. segmentSize:[" + segmentSize + "].");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            this.checkpoint = map(directory.resolve(CHECKPOINT_FILE), Long.BYTES + Integer.BYTES);
+            this.committed = new Position(checkpoint.getLong(0), checkpoint.getInt(Long.BYTES));
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open spill log. directory:[" + directory + "].", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the message does not fit into a segment
+     */
+    public synchronized void append(String topic, PubsubMessage message) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] messageBytes = message.toByteArray();
+        int length = Integer.BYTES + topicBytes.length + messageBytes.length;
+        if (Integer.BYTES + length > segmentSize) {
+            throw new IllegalArgumentException("Message is larger than a spill segment. bytes:[" + length + "].");
+        }
+        if (writeOffset + Integer.BYTES + length > segmentSize) {
+            writeSegment++;
+            writeOffset = 0;
+        }
+
+        MappedByteBuffer segment = segment(writeSegment);
+        segment.putInt(writeOffset + Integer.BYTES, topicBytes.length)
+                .put(writeOffset + HEADER_BYTES, topicBytes)
+                .put(writeOffset + HEADER_BYTES + topicBytes.length, messageBytes);
+        segment.putInt(writeOffset, length);
+
+        writeOffset += Integer.BYTES + length;
+        backlog++;
+        backlogBytes += length;
+    }
+
+    /**
+     * Reads up to {@code max} records from the committed position; they stay in the log until {@link #commit}.
+     */
+    public synchronized List<Entry> read(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, (int) Math.min(backlog, Integer.MAX_VALUE)));
+        Position position = committed;
+        while (entries.size() < max) {
+            Entry entry = readAt(position);
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+            position = entry.next();
+        }
+        return entries;
+    }
+
+    /**
+     * Marks the given entries, read by the last {@link #read}, as drained and deletes segments that are fully drained.
+     */
+    public synchronized void commit(List<Entry> drained) {
+        if (drained.isEmpty()) {
+            return;
+        }
+        Position next = drained.getLast().next();
+        checkpoint.putLong(0, next.segment()).putInt(Long.BYTES, next.offset());
+        checkpoint.force();
+        committed = next;
+
+        for (Entry entry : drained) {
+            backlog--;
+            backlogBytes -= entry.length();
+        }
+        deleteSegmentsBefore(next.segment());
+    }
+
+    public synchronized long backlog() {
+        return backlog;
+    }
+
+    public synchronized long backlogBytes() {
+        return backlogBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+        checkpoint.force();
+        segments.clear();
+    }
+
+    private Entry readAt(Position position) {
+        long segmentId = position.segment();
+        int offset = position.offset();
+        while (true) {
+            if (segmentId > writeSegment || (segmentId == writeSegment && offset >= writeOffset)) {
+                return null;
+            }
+            MappedByteBuffer segment = segment(segmentId);
+            int length = offset + Integer.BYTES <= segmentSize ? segment.getInt(offset) : 0;
+            if (length <= 0) {
+                segmentId++;
+                offset = 0;
+                continue;
+            }
+
+            int topicLength = segment.getInt(offset + Integer.BYTES);
+            byte[] topic = new byte[topicLength];
+            byte[] message = new byte[length - Integer.BYTES - topicLength];
+            segment.get(offset + HEADER_BYTES, topic).get(offset + HEADER_BYTES + topicLength, message);
+
+            var next = new Position(segmentId, offset + Integer.BYTES + length);
+            return new Entry(new String(topic, StandardCharsets.UTF_8), parse(message), length, next);
+        }
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long segmentId = Long.parseLong(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10);
+                    if (segmentId < committed.segment()) {
+                        Files.deleteIfExists(file);
+                    } else {
+                        segments.put(segmentId, map(file, segmentSize));
+                    }
+                }
+            }
+        }
+
+        writeSegment = segments.isEmpty() ? committed.segment() : segments.lastKey();
+        writeOffset = Integer.MAX_VALUE;
+        Position position = committed;
+        Entry entry;
+        while ((entry = readAt(position)) != null) {
+            backlog++;
+            backlogBytes += entry.length();
+            position = entry.next();
+        }
+        writeSegment = position.segment();
+        writeOffset = position.offset();
+        if (backlog > 0) {
+            log.info("Recovered spilled Pub/Sub messages. directory:[{}], backlog:[{}], bytes:[{}].",
+                    directory, backlog, backlogBytes);
+        }
+    }
+
+    private MappedByteBuffer segment(long segmentId) {
+        return segments.computeIfAbsent(segmentId, id -> {
+            try {
+                return map(directory.resolve(SEGMENT_PREFIX + "%020d".formatted(id) + SEGMENT_SUFFIX), segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to create spill segment. segment:[" + id + "].", e);
+            }
+        });
+    }
+
+    private void deleteSegmentsBefore(long segmentId) {
+        var drained = segments.headMap(segmentId);
+        for (Long id : List.copyOf(drained.keySet())) {
+            drained.remove(id);
+            try {
+                Files.deleteIfExists(directory.resolve(SEGMENT_PREFIX + "%020d".formatted(id) + SEGMENT_SUFFIX));
+            } catch (IOException e) {
+                log.warn("Unable to delete drained spill segment. segment:[{}], error:[{}].", id, e.getMessage());
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static PubsubMessage parse(byte[] message) {
+        try {
+            return PubsubMessage.parseFrom(message);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Corrupted spilled Pub/Sub message.", e);
+        }
+    }
+
+    public record Position(long segment, int offset) {
+    }
+
+    /**
+     * @param length record length without the length field
+     * @param next   position after the record
+     */
+    public record Entry(String topic, PubsubMessage message, int length, Position next) {
+    }
+}
@@ -0,0 +1,202 @@
+package dev.avorakh.gcp.template.svc;
+
+import static dev.avorakh.gcp.template.svc.EventMessageMapper.toEventMessage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+
+/**
+ * Write-behind variant of the post processor: event messages are buffered in memory and saved in
+ * batches, either every {@code app.persistence.write-behind.flush-interval-ms} or as soon as
+ * {@code app.persistence.write-behind.batch-size} messages are waiting.
+ * <p>
+ * Buffered messages that were not flushed yet are lost if the process dies, so this mode trades
+ * durability of the audit rows for fewer database round trips. When the buffer is full the message
+ * is saved synchronously instead of being dropped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@ConditionalOnProperty(name = "app.persistence.mode", havingValue = "write-behind")
+public class WriteBehindPublishedEventPostProcessor implements PublishedEventPostProcessor {
+
+    EventMessageRepository eventMessageRepository;
+    TaskScheduler taskScheduler;
+    EventMetrics eventMetrics;
+
+    ReentrantLock flushLock = new ReentrantLock();
+    AtomicBoolean flushRequested = new AtomicBoolean();
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.write-behind.batch-size:500}")
+    int batchSize;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.write-behind.capacity:10000}")
+    int capacity;
+
+    /**
+     * Batches of at least this many messages are saved with {@code COPY} instead of batched inserts, 0 disables it.
+     */
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.copy-threshold:100}")
+    int copyThreshold;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.async:false}")
+    boolean async;
+
+    @NonFinal
+    @Setter
+    @Value("${app.persistence.scope:all}")
+    Scope scope = Scope.ALL;
+
+    @NonFinal
+    BlockingQueue<EventMessage> buffer;
+
+    @PostConstruct
+    void init() {
+        buffer = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public Scope scope() {
+        return scope;
+    }
+
+    @Override
+    public PublishedEventDto process(RequestEventDto event, PublishedEventDto publishedEventDto) {
+
+        EventMessage eventMessage = toEventMessage(event, publishedEventDto);
+
+        if (!buffer.offer(eventMessage)) {
+            log.warn("Write-behind buffer is full, saving event message synchronously. eventId:[{}].", event.getId());
+            eventMetrics.recordPersistence("direct", () -> eventMessageRepository.save(eventMessage));
+            return publishedEventDto;
+        }
+
+        if (buffer.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+
+        return publishedEventDto;
+    }
+
+    @Scheduled(fixedDelayString = "${app.persistence.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<EventMessage> batch = new ArrayList<>(batchSize);
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                saveBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Flushing write-behind buffer before shutdown. size:[{}].", buffer.size());
+        flush();
+    }
+
+    int bufferedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * A batch is written in one statement, so a single bad row fails all of it. The rows are then saved one by one
+     * and only the rows that still fail are lost; they are counted in {@code app.events.persistence.lost}.
+     */
+    private void saveBatch(List<EventMessage> batch) {
+        try {
+            if (copyThreshold > 0 && batch.size() >= copyThreshold) {
+                eventMetrics.recordPersistence("copy", () -> eventMessageRepository.copyAll(batch));
+            } else {
+                eventMetrics.recordPersistence("write-behind", () -> eventMessageRepository.saveAll(batch));
+            }
+            log.debug("Saved batch of event messages. size:[{}].", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Unable to save batch of event messages, saving them one by one. size:[{}], error:[{}].",
+                    batch.size(), e.getMessage());
+            saveOneByOne(batch);
+        }
+    }
+
+    private void saveOneByOne(List<EventMessage> batch) {
+        int lost = 0;
+        for (EventMessage eventMessage : batch) {
+            try {
+                eventMetrics.recordPersistence("write-behind", () -> eventMessageRepository.save(eventMessage));
+            } catch (DataIntegrityViolationException e) {
+                onDuplicate(eventMessage, e);
+            } catch (RuntimeException e) {
+                lost++;
+                log.error("Unable to save event message. id:[{}], error:[{}].", eventMessage.getId(), e.getMessage(), e);
+            }
+        }
+        if (lost > 0) {
+            eventMetrics.recordPersistenceLost("write-behind", lost);
+        }
+    }
+
+    /**
+     * A client retry of an event id that was already stored, as in direct mode: the stored row is kept and only
+     * gets the message id if it was stored as a failure. Not counted as lost.
+     */
+    private void onDuplicate(EventMessage eventMessage, DataIntegrityViolationException e) {
+        log.info("Event message is already stored. id:[{}], error:[{}].", eventMessage.getId(), e.getMessage());
+        eventMetrics.recordDuplicate("insert");
+        if (eventMessage.getMessageId() == null) {
+            return;
+        }
+        try {
+            eventMessageRepository.updateMissingMessageId(eventMessage.getId(), eventMessage.getMessageId(),
+                                                          eventMessage.getModified());
+        } catch (RuntimeException updateFailure) {
+            log.error("Unable to update message id of stored event message. id:[{}], error:[{}].",
+                      eventMessage.getId(), updateFailure.getMessage(), updateFailure);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+-- event_messages is range partitioned by day of "created", every day is sub-partitioned by hash of "id".
+-- Partitions are created ahead and dropped after the retention by EventMessagePartitionMaintenance;
+-- rows without a matching day partition go to event_messages_default.
+-- The primary key has to contain the partition key, so "id" is unique per "created" only.
+
+-- A legacy table keeps the name of its primary key on rename, the new table needs event_messages_pkey.
+ALTER TABLE IF EXISTS event_messages DROP CONSTRAINT IF EXISTS event_messages_pkey;
+ALTER TABLE IF EXISTS event_messages RENAME TO event_messages_legacy;
+
+CREATE TABLE event_messages
+(
+    id         uuid         NOT NULL,
+    event_type varchar(255) NOT NULL,
+    event_data jsonb,
+    message_id varchar(255),
+    created    timestamptz  NOT NULL DEFAULT now(),
+    modified   timestamptz,
+    PRIMARY KEY (id, created)
+) PARTITION BY RANGE (created);
+
+CREATE TABLE event_messages_default PARTITION OF event_messages DEFAULT;
+
+-- outbox relay: oldest unpublished rows
+CREATE INDEX event_messages_unpublished_idx ON event_messages (created) WHERE message_id IS NULL;
+
+-- Creates the partition of [range_start, range_end) named event_messages_yyyymmdd, with hash_partitions
+-- sub-partitions when hash_partitions > 1. Rows of the range that already went to the default partition are
+-- moved into the new partition. Returns the partition name, or null if it exists already.
+CREATE FUNCTION event_messages_create_partition(range_start timestamptz, range_end timestamptz, hash_partitions int)
+    RETURNS text
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    partition_name text := 'event_messages_' || to_char(range_start AT TIME ZONE 'UTC', 'YYYYMMDD');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('event_messages_partitions'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    IF hash_partitions > 1 THEN
+        EXECUTE format('CREATE TABLE %I (LIKE event_messages INCLUDING DEFAULTS) PARTITION BY HASH (id)', partition_name);
+        FOR remainder IN 0 .. hash_partitions - 1
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                               partition_name || '_' || remainder, partition_name, hash_partitions, remainder);
+            END LOOP;
+    ELSE
+        EXECUTE format('CREATE TABLE %I (LIKE event_messages INCLUDING DEFAULTS)', partition_name);
+    END IF;
+
+    EXECUTE format('WITH moved AS (DELETE FROM event_messages_default WHERE created >= $1 AND created < $2 RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved', partition_name)
+        USING range_start, range_end;
+    EXECUTE format('ALTER TABLE event_messages ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+    RETURN partition_name;
+END
+$$;
+
+-- Rows of a table created before partitioning, with created/modified stored as ISO-8601 strings.
+DO
+$$
+    DECLARE
+        day date;
+    BEGIN
+        IF to_regclass('event_messages_legacy') IS NULL THEN
+            RETURN;
+        END IF;
+
+        FOR day IN SELECT DISTINCT (coalesce(created::timestamptz, now()) AT TIME ZONE 'UTC')::date FROM event_messages_legacy
+            LOOP
+                PERFORM event_messages_create_partition(day::timestamp AT TIME ZONE 'UTC',
+                                                        (day + 1)::timestamp AT TIME ZONE 'UTC', 1);
+            END LOOP;
+
+        INSERT INTO event_messages (id, event_type, event_data, message_id, created, modified)
+        SELECT id, event_type, event_data, message_id, coalesce(created::timestamptz, now()), modified::timestamptz
+        FROM event_messages_legacy;
+
+        DROP TABLE event_messages_legacy;
+    END
+$$;
@@ -0,0 +1,12 @@
+-- Indexes of the read API (GET /events). Listings are ordered by (created, id) descending and continue after the
+-- last (created, id) of the previous page, so every filter has an index that ends with created, id.
+-- Indexes on the partitioned table are created on every partition and on partitions attached later.
+
+-- listing by event type and time range
+CREATE INDEX event_messages_event_type_created_idx ON event_messages (event_type, created, id);
+
+-- listing by time range only
+CREATE INDEX event_messages_created_idx ON event_messages (created, id);
+
+-- lookup by Pub/Sub message id, unpublished rows have none
+CREATE INDEX event_messages_message_id_idx ON event_messages (message_id) WHERE message_id IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Lease of the outbox relay: a row is claimed in a short transaction by setting claimed_until, published outside of
+-- any transaction and marked published in a second one. Rows whose lease ran out are claimed again.
+-- Partitions created later by event_messages_create_partition copy the column with LIKE event_messages.
+ALTER TABLE event_messages ADD COLUMN claimed_until timestamptz;
@@ -0,0 +1,36 @@
+-- The primary key of event_messages only makes "id" unique per "created". event_ids is not partitioned and holds
+-- every id once: the trigger rejects a second row with the same id with a unique violation, whatever its "created".
+-- EventMessagePartitionMaintenance deletes the ids of dropped partitions. "created" of a row must not change, moving
+-- a row to another partition inserts its id again.
+
+CREATE TABLE event_ids
+(
+    id      uuid        NOT NULL PRIMARY KEY,
+    created timestamptz NOT NULL
+);
+
+CREATE INDEX event_ids_created_idx ON event_ids (created);
+
+-- Ids stored before this migration; a duplicate among them is kept in event_messages, only its oldest row is registered.
+INSERT INTO event_ids (id, created)
+SELECT DISTINCT ON (id) id, created
+FROM event_messages
+ORDER BY id, created;
+
+CREATE FUNCTION event_messages_register_id()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    INSERT INTO event_ids (id, created) VALUES (NEW.id, NEW.created);
+    RETURN NEW;
+END
+$$;
+
+-- Cloned to every partition, also to the ones attached later by event_messages_create_partition.
+CREATE TRIGGER event_messages_register_id
+    BEFORE INSERT
+    ON event_messages
+    FOR EACH ROW
+EXECUTE FUNCTION event_messages_register_id();
@@ -15,6 +15,8 @@ import org.testcontainers.gcloud.PubSubEmulatorContainer;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import dev.avorakh.gcp.template.svc.EventPublisher;
+import dev.avorakh.gcp.template.svc.OrderingKeyResolver;
 import dev.avorakh.gcp.template.test.PostgreSQLContainerUtil;
 import dev.avorakh.gcp.template.test.PubSubEmulatorContainerUtil;
 
@@ -51,11 +53,19 @@ class SpringPubSubPublisherRestApiTemplateApplicationTests {
     @Autowired
     private GcpProjectIdProvider gcpProjectIdProvider;
 
+    @Autowired
+    private OrderingKeyResolver orderingKeyResolver;
+
+    @Autowired
+    private EventPublisher eventPublisher;
+
     @Test
     void contextLoads() {
         // context load check
         assertNotNull(googleCredentials, "googleCredentials bean should be present");
         assertNotNull(gcpProjectIdProvider, "gcpProjectIdProvider bean should be present");
+        assertNotNull(orderingKeyResolver, "orderingKeyResolver bean should be present");
+        assertNotNull(eventPublisher, "eventPublisher bean should be present");
     }
 
 }
@@ -0,0 +1,112 @@
+package dev.avorakh.gcp.template.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static dev.avorakh.gcp.template.config.PostProcessingExecutorConfig.EXECUTOR_NAME;
+import static dev.avorakh.gcp.template.config.PostProcessingExecutorConfig.IN_FLIGHT_METRIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("PostProcessingExecutorConfig Tests")
+class PostProcessingExecutorConfigTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PostProcessingExecutorConfig sut;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new PostProcessingExecutorConfig();
+    }
+
+    @Test
+    @DisplayName("Should run tasks on virtual threads and report in-flight tasks")
+    void shouldRunTasksOnVirtualThreads() throws InterruptedException {
+        var properties = new PostProcessingExecutorProperties(PostProcessingExecutorProperties.Type.VIRTUAL, 1, 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var isVirtual = new boolean[1];
+
+        try (ExecutorService executor = sut.postProcessingExecutor(properties, meterRegistry)) {
+            executor.execute(() -> {
+                isVirtual[0] = Thread.currentThread().isVirtual();
+                started.countDown();
+                awaitQuietly(release);
+            });
+
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(isVirtual[0]).isTrue();
+            assertThat(meterRegistry.get(IN_FLIGHT_METRIC).gauge().value()).isEqualTo(1.0);
+
+            release.countDown();
+            await().atMost(5, TimeUnit.SECONDS)
+                    .until(() -> meterRegistry.get(IN_FLIGHT_METRIC).gauge().value() == 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report queue depth of the platform thread pool")
+    void shouldReportQueueDepthOfPlatformThreadPool() throws InterruptedException {
+        var properties = new PostProcessingExecutorProperties(PostProcessingExecutorProperties.Type.PLATFORM, 1, 10);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (ExecutorService executor = sut.postProcessingExecutor(properties, meterRegistry)) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            executor.execute(() -> { });
+            executor.execute(() -> { });
+
+            double queued = meterRegistry.get("executor.queued")
+                    .tag("name", EXECUTOR_NAME)
+                    .gauge()
+                    .value();
+            assertThat(queued).isEqualTo(2.0);
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject tasks instead of running them on the caller when the queue is full")
+    void shouldRejectTasksWhenQueueIsFull() throws InterruptedException {
+        var properties = new PostProcessingExecutorProperties(PostProcessingExecutorProperties.Type.PLATFORM, 1, 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (ExecutorService executor = sut.postProcessingExecutor(properties, meterRegistry)) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            executor.execute(() -> { });
+
+            assertThatThrownBy(() -> executor.execute(() -> { }))
+                    .isInstanceOf(RejectedExecutionException.class);
+
+            release.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
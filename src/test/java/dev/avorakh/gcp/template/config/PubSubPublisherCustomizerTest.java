@@ -0,0 +1,82 @@
+package dev.avorakh.gcp.template.config;
+
+import com.google.api.gax.batching.BatchingSettings;
+import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Batching;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Compression;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.FlowControl;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.PublisherSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PubSubPublisherCustomizer Tests")
+class PubSubPublisherCustomizerTest {
+
+    private PubSubPublisherProperties properties;
+    private PubSubPublisherCustomizer sut;
+
+    @BeforeEach
+    void setUp() {
+        var defaults = new PublisherSettings(
+                new Batching(100L, 1000L, Duration.ofMillis(5)),
+                new FlowControl(1000L, null, LimitExceededBehavior.Block),
+                new Compression(false, null),
+                4);
+        var hotTopic = new PublisherSettings(
+                new Batching(500L, null, null),
+                null,
+                new Compression(true, 1024L),
+                null);
+
+        properties = new PubSubPublisherProperties("default-topic", defaults, Map.of("hot-topic", hotTopic), null, null);
+        sut = new PubSubPublisherCustomizer(properties);
+    }
+
+    @Test
+    @DisplayName("Should use publisher defaults for topic without overrides")
+    void shouldUseDefaultsForTopicWithoutOverrides() {
+
+        BatchingSettings actual = sut.toBatchingSettings(properties.settingsFor("default-topic"));
+
+        assertThat(actual.getElementCountThreshold()).isEqualTo(100L);
+        assertThat(actual.getRequestByteThreshold()).isEqualTo(1000L);
+        assertThat(actual.getDelayThresholdDuration()).isEqualTo(Duration.ofMillis(5));
+        assertThat(actual.getFlowControlSettings().getMaxOutstandingElementCount()).isEqualTo(1000L);
+        assertThat(actual.getFlowControlSettings().getLimitExceededBehavior()).isEqualTo(LimitExceededBehavior.Block);
+    }
+
+    @Test
+    @DisplayName("Should override single values per topic and keep the other defaults")
+    void shouldOverrideSingleValuesPerTopic() {
+
+        PublisherSettings settings = properties.settingsFor("projects/test-project/topics/hot-topic");
+        BatchingSettings actual = sut.toBatchingSettings(settings);
+
+        assertThat(actual.getElementCountThreshold()).isEqualTo(500L);
+        assertThat(actual.getRequestByteThreshold()).isEqualTo(1000L);
+        assertThat(actual.getDelayThresholdDuration()).isEqualTo(Duration.ofMillis(5));
+        assertThat(actual.getFlowControlSettings().getLimitExceededBehavior()).isEqualTo(LimitExceededBehavior.Block);
+        assertThat(settings.compression().enabled()).isTrue();
+        assertThat(settings.compression().bytesThreshold()).isEqualTo(1024L);
+        assertThat(settings.executorThreads()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should fall back to client defaults when nothing is configured")
+    void shouldFallBackToClientDefaults() {
+        var empty = new PubSubPublisherProperties("default-topic", null, null, null, null);
+
+        BatchingSettings actual = new PubSubPublisherCustomizer(empty).toBatchingSettings(empty.settingsFor("default-topic"));
+
+        assertThat(actual.getElementCountThreshold()).isEqualTo(PubSubPublisherCustomizer.DEFAULT_ELEMENT_COUNT_THRESHOLD);
+        assertThat(actual.getRequestByteThreshold()).isEqualTo(PubSubPublisherCustomizer.DEFAULT_REQUEST_BYTE_THRESHOLD);
+        assertThat(actual.getDelayThresholdDuration()).isEqualTo(PubSubPublisherCustomizer.DEFAULT_DELAY_THRESHOLD);
+        assertThat(actual.getFlowControlSettings().getLimitExceededBehavior()).isEqualTo(LimitExceededBehavior.Ignore);
+    }
+}
@@ -3,36 +3,64 @@ package dev.avorakh.gcp.template.controller;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.avorakh.gcp.template.config.EventAdmissionConfig;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 import dev.avorakh.gcp.template.svc.EventPublisher;
+import dev.avorakh.gcp.template.svc.EventStreamPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
-@WebMvcTest(EventController.class)
+@WebMvcTest(controllers = EventController.class, properties = "app.admission.max-in-flight=" + EventControllerTest.MAX_IN_FLIGHT)
+@Import({EventAdmissionConfig.class, EventStreamPublisher.class, EventControllerTest.MeterRegistryConfig.class})
 class EventControllerTest {
 
+    static final int MAX_IN_FLIGHT = 2;
+
+    @TestConfiguration
+    static class MeterRegistryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -47,7 +75,7 @@ class EventControllerTest {
 
         String eventId = UUID.randomUUID().toString();
         String eventType = "test-event";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         String messageId = "message-id-123";
         
         RequestEventDto requestEvent = new RequestEventDto(eventId, eventType, payload);
@@ -78,7 +106,7 @@ class EventControllerTest {
     void shouldSuccessfullyPublishEventWithNullId() throws Exception {
         // Given
         String eventType = "test-event";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         String messageId = "message-id-456";
         
         RequestEventDto requestEvent = new RequestEventDto(null, eventType, payload);
@@ -114,7 +142,7 @@ class EventControllerTest {
     void shouldSuccessfullyPublishEventWithEmptyId() throws Exception {
 
         String eventType = "test-event";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         String messageId = "message-id-789";
         
         RequestEventDto requestEvent = new RequestEventDto("", eventType, payload);
@@ -151,7 +179,7 @@ class EventControllerTest {
 
         String eventId = UUID.randomUUID().toString();
         String eventType = "test-event";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         String errorReason = "Publish failed";
         
         RequestEventDto requestEvent = new RequestEventDto(eventId, eventType, payload);
@@ -182,7 +210,7 @@ class EventControllerTest {
 
         String eventId = UUID.randomUUID().toString();
         String eventType = "test-event";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         
         RequestEventDto requestEvent = new RequestEventDto(eventId, eventType, payload);
         PublishedEventDto publishedEvent = PublishedEventDto.builder()
@@ -211,5 +239,220 @@ class EventControllerTest {
         assertEquals(eventType, capturedEvent.getType());
         assertEquals(payload, capturedEvent.getPayload());
     }
-}
 
+    @Test
+    void shouldSuccessfullyPublishBatchOfEvents() throws Exception {
+
+        String eventType = "test-event";
+        JsonNode payload = json("{\"key\":\"value\"}");
+
+        var requestEvents = List.of(
+                new RequestEventDto(UUID.randomUUID().toString(), eventType, payload),
+                new RequestEventDto(null, eventType, payload)
+        );
+        var publishedEvents = List.of(
+                PublishedEventDto.builder().success(true).messageId("message-id-1").build(),
+                PublishedEventDto.builder().success(false).errorReason("Publish failed").build()
+        );
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RequestEventDto>> eventsCaptor = forClass(List.class);
+        when(publisher.publishEvents(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(publishedEvents));
+
+        var result = mockMvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestEvents)))
+                .andDo(print())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].messageId").value("message-id-1"))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].errorReason").value("Publish failed"));
+
+        verify(publisher).publishEvents(eventsCaptor.capture());
+        List<RequestEventDto> capturedEvents = eventsCaptor.getValue();
+        assertEquals(2, capturedEvents.size());
+        assertEquals(requestEvents.get(0).getId(), capturedEvents.get(0).getId());
+        assertNotNull(capturedEvents.get(1).getId());
+        assertFalse(capturedEvents.get(1).getId().isEmpty());
+    }
+
+    @Test
+    void shouldPassRawJsonPayloadThrough() throws Exception {
+
+        String requestBody = """
+                {"id":"%s","type":"test-event","payload":{"key":"value","nested":{"number":42}}}
+                """.formatted(UUID.randomUUID());
+
+        ArgumentCaptor<RequestEventDto> eventCaptor = forClass(RequestEventDto.class);
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).build()));
+
+        var result = mockMvc.perform(post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(publisher).publishEvent(eventCaptor.capture());
+        JsonNode capturedPayload = eventCaptor.getValue().getPayload();
+        assertEquals(json("{\"key\":\"value\",\"nested\":{\"number\":42}}"), capturedPayload);
+    }
+
+    @Test
+    void shouldKeepStringPayloadAsString() throws Exception {
+
+        String requestBody = """
+                {"type":"test-event","payload":"{\\"key\\":\\"value\\"}"}
+                """;
+
+        ArgumentCaptor<RequestEventDto> eventCaptor = forClass(RequestEventDto.class);
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).build()));
+
+        var result = mockMvc.perform(post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(publisher).publishEvent(eventCaptor.capture());
+        JsonNode capturedPayload = eventCaptor.getValue().getPayload();
+        assertTrue(capturedPayload.isTextual());
+        assertEquals("{\"key\":\"value\"}", capturedPayload.asText());
+    }
+
+    @Test
+    void shouldRejectEventWhenTooManyEventsAreInFlight() throws Exception {
+
+        var pending = new CompletableFuture<PublishedEventDto>();
+        when(publisher.publishEvent(any(RequestEventDto.class))).thenReturn(pending);
+        String requestBody = """
+                {"type":"test-event","payload":{"key":"value"}}
+                """;
+
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            mockMvc.perform(post("/events")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestBody))
+                    .andExpect(request().asyncStarted());
+        }
+
+        var rejected = mockMvc.perform(post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(rejected))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errorReason").exists());
+
+        pending.complete(PublishedEventDto.builder().success(true).messageId("message-id").build());
+
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).build()));
+        var admitted = mockMvc.perform(post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(admitted))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenPostProcessingExecutorRejectsEvent() throws Exception {
+
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("post-processing queue is full")));
+
+        var result = mockMvc.perform(post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"type":"test-event","payload":{"key":"value"}}
+                                """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.errorReason").exists());
+    }
+
+    @Test
+    void shouldRejectBatchLargerThanInFlightLimitWithoutRetryAfter() throws Exception {
+
+        JsonNode payload = json("{\"key\":\"value\"}");
+        var requestEvents = List.of(
+                new RequestEventDto(null, "test-event", payload),
+                new RequestEventDto(null, "test-event", payload),
+                new RequestEventDto(null, "test-event", payload)
+        );
+
+        var result = mockMvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestEvents)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is(413))
+                .andExpect(header().doesNotExist("Retry-After"));
+
+        verify(publisher, never()).publishEvents(anyList());
+    }
+
+    @Test
+    void shouldPublishNdjsonStreamAndReturnOneResultLinePerEvent() throws Exception {
+
+        String requestBody = """
+                {"id":"event-1","type":"test-event","payload":{"index":1}}
+                {"id":"event-2","type":"test-event","payload":{"index":2}}
+                {"type":"test-event","payload":{"index":3}}
+                """;
+
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenAnswer(invocation -> {
+                    RequestEventDto event = invocation.getArgument(0);
+                    return CompletableFuture.completedFuture(PublishedEventDto.builder()
+                                                                     .success(true)
+                                                                     .messageId("message-" + event.getPayload().get("index").asInt())
+                                                                     .build());
+                });
+
+        String responseBody = mockMvc.perform(post("/events/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = responseBody.lines().toList();
+        assertEquals(3, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            PublishedEventDto result = objectMapper.readValue(lines.get(i), PublishedEventDto.class);
+            assertTrue(result.success());
+            assertEquals("message-" + (i + 1), result.messageId());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package dev.avorakh.gcp.template.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageDto;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventMessageSummary;
+import dev.avorakh.gcp.template.model.EventPageDto;
+import dev.avorakh.gcp.template.svc.EventQueryService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@WebMvcTest(controllers = EventQueryController.class)
+class EventQueryControllerTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private EventQueryService eventQueryService;
+
+    @Test
+    void shouldReturnEventById() throws Exception {
+        var id = UUID.randomUUID();
+        when(eventQueryService.findById(id)).thenReturn(CompletableFuture.completedFuture(Optional.of(
+                new EventMessageDto(id, "test-event", Map.of("data", "value"), "message-id-123", CREATED, CREATED))));
+
+        var result = mockMvc.perform(get("/events/{id}", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()))
+                .andExpect(jsonPath("$.eventType").value("test-event"))
+                .andExpect(jsonPath("$.eventData.data").value("value"))
+                .andExpect(jsonPath("$.messageId").value("message-id-123"));
+    }
+
+    @Test
+    void shouldReturnEventByMessageId() throws Exception {
+        var id = UUID.randomUUID();
+        when(eventQueryService.findByMessageId("message-id-123")).thenReturn(CompletableFuture.completedFuture(Optional.of(
+                new EventMessageDto(id, "test-event", Map.of("data", "value"), "message-id-123", CREATED, CREATED))));
+
+        var result = mockMvc.perform(get("/events/by-message-id/{messageId}", "message-id-123"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()))
+                .andExpect(jsonPath("$.messageId").value("message-id-123"));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownEvent() throws Exception {
+        var id = UUID.randomUUID();
+        when(eventQueryService.findById(id)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        var result = mockMvc.perform(get("/events/{id}", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldListEventsWithFilterAndCursor() throws Exception {
+        var summary = new EventMessageSummary(UUID.randomUUID(), "test-event", "message-id-123", CREATED, CREATED);
+        var after = new EventCursor(CREATED.plusSeconds(1), UUID.randomUUID());
+        String next = EventCursor.after(summary).encode();
+        ArgumentCaptor<EventMessageFilter> filterCaptor = ArgumentCaptor.forClass(EventMessageFilter.class);
+        when(eventQueryService.findEvents(any(EventMessageFilter.class), eq(after), eq(50)))
+                .thenReturn(CompletableFuture.completedFuture(new EventPageDto(List.of(summary), next)));
+
+        var result = mockMvc.perform(get("/events")
+                        .param("eventType", "test-event")
+                        .param("from", "2023-12-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00+01:00")
+                        .param("after", after.encode())
+                        .param("limit", "50"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(summary.id().toString()))
+                .andExpect(jsonPath("$.items[0].eventData").doesNotExist())
+                .andExpect(jsonPath("$.next").value(next));
+
+        verify(eventQueryService).findEvents(filterCaptor.capture(), eq(after), eq(50));
+        assertThat(filterCaptor.getValue().eventType()).isEqualTo("test-event");
+        assertThat(filterCaptor.getValue().messageId()).isNull();
+        assertThat(filterCaptor.getValue().from()).isAtSameInstantAs(OffsetDateTime.parse("2023-12-01T00:00:00Z"));
+        assertThat(filterCaptor.getValue().to()).isAtSameInstantAs(OffsetDateTime.parse("2024-01-31T23:00:00Z"));
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        mockMvc.perform(get("/events").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(eventQueryService);
+    }
+}
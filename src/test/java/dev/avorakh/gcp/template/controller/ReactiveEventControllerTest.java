@@ -0,0 +1,192 @@
+package dev.avorakh.gcp.template.controller;
+
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.avorakh.gcp.template.config.EventAdmissionConfig;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.svc.EventPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+@WebFluxTest(controllers = ReactiveEventController.class, properties = "app.admission.max-in-flight=" + ReactiveEventControllerTest.MAX_IN_FLIGHT)
+@Import({EventAdmissionConfig.class, ReactiveEventControllerTest.MeterRegistryConfig.class})
+class ReactiveEventControllerTest {
+
+    static final int MAX_IN_FLIGHT = 2;
+
+    @TestConfiguration
+    static class MeterRegistryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private EventPublisher publisher;
+
+    @Test
+    void shouldPublishEvent() {
+
+        String eventId = UUID.randomUUID().toString();
+        JsonNode payload = json("{\"key\":\"value\"}");
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).messageId("message-id-123").build()));
+
+        webTestClient.post()
+                .uri("/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RequestEventDto(eventId, "test-event", payload))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.messageId").isEqualTo("message-id-123")
+                .jsonPath("$.errorReason").doesNotExist();
+    }
+
+    @Test
+    void shouldPublishBatchOfEvents() {
+
+        JsonNode payload = json("{\"key\":\"value\"}");
+        when(publisher.publishEvents(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(
+                        PublishedEventDto.builder().success(true).messageId("message-id-1").build(),
+                        PublishedEventDto.builder().success(false).errorReason("Publish failed").build())));
+
+        webTestClient.post()
+                .uri("/events/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new RequestEventDto(null, "test-event", payload), new RequestEventDto(null, "test-event", payload)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].messageId").isEqualTo("message-id-1")
+                .jsonPath("$[1].errorReason").isEqualTo("Publish failed");
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenPostProcessingExecutorRejectsEvent() {
+
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("post-processing queue is full")));
+
+        webTestClient.post()
+                .uri("/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RequestEventDto(null, "test-event", json("{\"key\":\"value\"}")))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().exists("Retry-After")
+                .expectBody()
+                .jsonPath("$.errorReason").exists();
+    }
+
+    @Test
+    void shouldRejectBatchLargerThanInFlightLimitWithoutRetryAfter() {
+
+        JsonNode payload = json("{\"key\":\"value\"}");
+
+        webTestClient.post()
+                .uri("/events/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new RequestEventDto(null, "test-event", payload),
+                                   new RequestEventDto(null, "test-event", payload),
+                                   new RequestEventDto(null, "test-event", payload)))
+                .exchange()
+                .expectStatus().isEqualTo(413)
+                .expectHeader().doesNotExist("Retry-After");
+
+        verify(publisher, never()).publishEvents(anyList());
+    }
+
+    @Test
+    void shouldPublishNdjsonStreamInInputOrder() {
+
+        String requestBody = """
+                {"id":"event-1","type":"test-event","payload":{"index":1}}
+                {"id":"event-2","type":"test-event","payload":{"index":2}}
+                {"id":"event-3","type":"test-event","payload":{"index":3}}
+                """;
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenAnswer(invocation -> {
+                    RequestEventDto event = invocation.getArgument(0);
+                    return CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).messageId(event.getId()).build());
+                });
+
+        List<PublishedEventDto> results = webTestClient.post()
+                .uri("/events/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(requestBody)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(PublishedEventDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(PublishedEventDto::messageId)
+                .containsExactly("event-1", "event-2", "event-3");
+    }
+
+    @Test
+    void shouldEndNdjsonStreamWithErrorLineOnMalformedEvent() {
+
+        String requestBody = """
+                {"id":"event-1","type":"test-event","payload":{"index":1}}
+                {"id":"event-2","type":
+                {"id":"event-3","type":"test-event","payload":{"index":3}}
+                """;
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenAnswer(invocation -> {
+                    RequestEventDto event = invocation.getArgument(0);
+                    return CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).messageId(event.getId()).build());
+                });
+
+        List<PublishedEventDto> results = webTestClient.post()
+                .uri("/events/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(requestBody)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(PublishedEventDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).messageId()).isEqualTo("event-1");
+        assertThat(results.get(1).success()).isFalse();
+        assertThat(results.get(1).errorReason()).startsWith("Invalid event");
+    }
+}
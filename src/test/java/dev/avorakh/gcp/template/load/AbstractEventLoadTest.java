@@ -0,0 +1,181 @@
+package dev.avorakh.gcp.template.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.svc.PublishedEventPostProcessor;
+import dev.avorakh.gcp.template.test.PostgreSQLContainerUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+
+/**
+ * Drives {@code POST /events} over HTTP with a stubbed Pub/Sub publisher and a post processor that blocks
+ * like a database save. Subclasses pick the execution mode; each run logs p99 latency and the maximum number
+ * of events that were in flight inside the publish pipeline at the same time.
+ * <p>
+ * Run with {@code ./gradlew loadTest}.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.gcp.project-id=sample-project",
+                "spring.cloud.gcp.credentials.enabled=false",
+                "spring.cloud.gcp.pubsub.enabled=false",
+                "server.tomcat.threads.max=50",
+                "app.post-processing.executor.threads=16"
+        })
+abstract class AbstractEventLoadTest {
+
+    static final int TOTAL_REQUESTS = 5_000;
+    static final int CLIENT_CONCURRENCY = 500;
+    static final long PUBLISH_LATENCY_MS = 5;
+    static final long SAVE_LATENCY_MS = 20;
+
+    private static final PostgreSQLContainer<?> POSTGRES = PostgreSQLContainerUtil.createContainer();
+
+    @BeforeAll
+    static void beforeAll() {
+        POSTGRES.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        POSTGRES.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLContainerUtil.configureProperties(registry, POSTGRES);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private PubSubPublisherTemplate pubSubPublisherTemplate;
+
+    @MockitoBean(answers = Answers.CALLS_REAL_METHODS)
+    private PublishedEventPostProcessor publishedEventPostProcessor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    protected abstract String mode();
+
+    @BeforeEach
+    void setUpStubs() {
+        when(pubSubPublisherTemplate.publish(anyString(), any(PubsubMessage.class)))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(
+                            () -> UUID.randomUUID().toString(),
+                            CompletableFuture.delayedExecutor(PUBLISH_LATENCY_MS, TimeUnit.MILLISECONDS));
+                });
+
+        when(publishedEventPostProcessor.process(any(RequestEventDto.class), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(SAVE_LATENCY_MS);
+                        return invocation.getArgument(1);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    @Test
+    void shouldReportLatencyAndConcurrency() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/template/events");
+        long[] latenciesNanos = new long[TOTAL_REQUESTS];
+        var failures = new AtomicInteger();
+        var permits = new Semaphore(CLIENT_CONCURRENCY);
+
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(clients).build()) {
+
+            for (int i = 0; i < TOTAL_REQUESTS; i++) {
+                int index = i;
+                String body = objectMapper.writeValueAsString(
+                        new RequestEventDto(UUID.randomUUID().toString(), "LOAD_TEST", json("{\"index\":" + index + "}")));
+                permits.acquire();
+                clients.execute(() -> {
+                    try {
+                        latenciesNanos[index] = send(httpClient, uri, body, failures);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        Arrays.sort(latenciesNanos);
+        long p50 = TimeUnit.NANOSECONDS.toMillis(latenciesNanos[(int) (TOTAL_REQUESTS * 0.50) - 1]);
+        long p99 = TimeUnit.NANOSECONDS.toMillis(latenciesNanos[(int) (TOTAL_REQUESTS * 0.99) - 1]);
+
+        log.info("Load test result. mode:[{}], requests:[{}], elapsedMs:[{}], p50Ms:[{}], p99Ms:[{}], maxInFlight:[{}], failures:[{}].",
+                mode(), TOTAL_REQUESTS, elapsedMillis, p50, p99, maxInFlight.get(), failures.get());
+
+        assertThat(failures.get()).isZero();
+    }
+
+    private static long send(HttpClient httpClient, URI uri, String body, AtomicInteger failures) {
+        var request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                failures.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+        }
+        return System.nanoTime() - started;
+    }
+}
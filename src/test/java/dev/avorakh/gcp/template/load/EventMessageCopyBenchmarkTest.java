@@ -0,0 +1,121 @@
+package dev.avorakh.gcp.template.load;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import dev.avorakh.gcp.template.test.PostgreSQLContainerUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts the same batches of event messages with {@code saveAll} and with binary {@code COPY} into a Postgres
+ * container and logs rows per second for each of them. Every batch runs in its own transaction, as the outbox and
+ * write-behind flows do. Run with {@code ./gradlew loadTest}.
+ */
+@Slf4j
+@Tag("load")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventMessageCopyBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int WARMUP_ROWS = 5_000;
+
+    private static final PostgreSQLContainer<?> postgres = PostgreSQLContainerUtil.createContainer();
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLContainerUtil.configureProperties(registry, postgres);
+    }
+
+    @Autowired
+    private EventMessageRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @ParameterizedTest(name = "batch size {0}")
+    @ValueSource(ints = {10, 100, 1_000, 10_000})
+    void compareSaveAllWithCopy(int batchSize) {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        insert(transactionTemplate, WARMUP_ROWS, batchSize, false);
+        insert(transactionTemplate, WARMUP_ROWS, batchSize, true);
+
+        long saveAllNanos = insert(transactionTemplate, ROWS, batchSize, false);
+        long copyNanos = insert(transactionTemplate, ROWS, batchSize, true);
+
+        log.info("Inserted event messages. rows:[{}], batchSize:[{}], saveAllRowsPerSec:[{}], copyRowsPerSec:[{}], speedup:[{}].",
+                ROWS, batchSize, rowsPerSecond(saveAllNanos), rowsPerSecond(copyNanos),
+                "%.1f".formatted((double) saveAllNanos / copyNanos));
+        assertThat(repository.count()).isEqualTo(2L * (ROWS + WARMUP_ROWS));
+        repository.deleteAllInBatch();
+    }
+
+    private long insert(TransactionTemplate transactionTemplate, int rows, int batchSize, boolean copy) {
+        long started = System.nanoTime();
+        for (int inserted = 0; inserted < rows; inserted += batchSize) {
+            List<EventMessage> batch = batch(Math.min(batchSize, rows - inserted));
+            transactionTemplate.executeWithoutResult(status -> {
+                if (copy) {
+                    repository.copyAll(batch);
+                } else {
+                    repository.saveAll(batch);
+                }
+            });
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static List<EventMessage> batch(int size) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return IntStream.range(0, size)
+                .mapToObj(i -> EventMessage.builder()
+                        .id(UUID.randomUUID())
+                        .eventType("BENCHMARK_EVENT")
+                        .eventData(Map.of("data", Map.of("sequence", i, "payload", "x".repeat(256))))
+                        .created(now)
+                        .modified(now)
+                        .build())
+                .toList();
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return ROWS * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+}
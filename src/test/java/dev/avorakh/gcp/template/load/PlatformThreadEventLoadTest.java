@@ -0,0 +1,15 @@
+package dev.avorakh.gcp.template.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=false",
+        "app.post-processing.executor.type=platform"
+})
+class PlatformThreadEventLoadTest extends AbstractEventLoadTest {
+
+    @Override
+    protected String mode() {
+        return "platform-threads";
+    }
+}
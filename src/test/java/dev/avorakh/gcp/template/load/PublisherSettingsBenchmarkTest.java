@@ -0,0 +1,118 @@
+package dev.avorakh.gcp.template.load;
+
+import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherCustomizer;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Batching;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Compression;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.FlowControl;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.PublisherSettings;
+import dev.avorakh.gcp.template.test.PubSubEmulatorContainerUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.gcloud.PubSubEmulatorContainer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static dev.avorakh.gcp.template.test.PubSubEmulatorContainerUtil.PUBSUB_EMULATOR_HOST;
+import static dev.avorakh.gcp.template.test.PubSubEmulatorContainerUtil.TOPIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Publishes the same burst of messages against the Pub/Sub emulator with different publisher settings and logs
+ * throughput and publish latency (publish call to message id) for each of them.
+ * <p>
+ * The emulator does not model the real service, so compare the settings with each other rather than reading the
+ * absolute numbers. Run with {@code ./gradlew loadTest}.
+ */
+@Slf4j
+@Tag("load")
+class PublisherSettingsBenchmarkTest {
+
+    private static final int MESSAGES = 20_000;
+    private static final int PAYLOAD_BYTES = 1024;
+
+    private static final PubSubEmulatorContainer PUBSUB_EMULATOR = PubSubEmulatorContainerUtil.createContainer();
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        PUBSUB_EMULATOR.start();
+        System.setProperty(PUBSUB_EMULATOR_HOST, PUBSUB_EMULATOR.getEmulatorEndpoint());
+        PubSubEmulatorContainerUtil.createTopic(PUBSUB_EMULATOR);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        PUBSUB_EMULATOR.stop();
+        System.clearProperty(PUBSUB_EMULATOR_HOST);
+    }
+
+    static Stream<Arguments> publisherSettings() {
+        return Stream.of(
+                Arguments.of("client-defaults", PublisherSettings.EMPTY),
+                Arguments.of("large-batches", new PublisherSettings(
+                        new Batching(1000L, 1_000_000L, Duration.ofMillis(10)), null, null, null)),
+                Arguments.of("large-batches-compressed", new PublisherSettings(
+                        new Batching(1000L, 1_000_000L, Duration.ofMillis(10)), null, new Compression(true, 240L), null)),
+                Arguments.of("flow-control-block", new PublisherSettings(
+                        new Batching(1000L, 1_000_000L, Duration.ofMillis(10)),
+                        new FlowControl(2000L, 10_000_000L, LimitExceededBehavior.Block),
+                        null,
+                        null))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("publisherSettings")
+    void shouldReportThroughputAndLatency(String name, PublisherSettings settings) {
+        var properties = new PubSubPublisherProperties(TOPIC_NAME, settings, null, null, null);
+        PubSubPublisherTemplate template = PubSubEmulatorContainerUtil.createPubSubPublisherTemplate(
+                PUBSUB_EMULATOR, new PubSubPublisherCustomizer(properties));
+        PubsubMessage message = PubsubMessage.newBuilder()
+                .setData(ByteString.copyFrom(new byte[PAYLOAD_BYTES]))
+                .putAttributes("eventType", "BENCHMARK")
+                .build();
+
+        long[] latenciesNanos = new long[MESSAGES];
+        List<CompletableFuture<String>> futures = new ArrayList<>(MESSAGES);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            int index = i;
+            long publishStarted = System.nanoTime();
+            futures.add(template.publish(TOPIC_NAME, message)
+                    .whenComplete((messageId, throwable) -> latenciesNanos[index] = System.nanoTime() - publishStarted));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        long elapsedNanos = System.nanoTime() - started;
+
+        Arrays.sort(latenciesNanos);
+        double throughput = MESSAGES / (elapsedNanos / 1_000_000_000.0);
+        log.info("Publisher benchmark result. settings:[{}], messages:[{}], throughputPerSec:[{}], p50Ms:[{}], p99Ms:[{}].",
+                name,
+                MESSAGES,
+                Math.round(throughput),
+                TimeUnit.NANOSECONDS.toMillis(latenciesNanos[MESSAGES / 2 - 1]),
+                TimeUnit.NANOSECONDS.toMillis(latenciesNanos[(int) (MESSAGES * 0.99) - 1]));
+
+        assertThat(futures).allMatch(future -> !future.isCompletedExceptionally());
+    }
+}
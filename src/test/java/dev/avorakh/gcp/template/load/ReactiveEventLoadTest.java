@@ -0,0 +1,12 @@
+package dev.avorakh.gcp.template.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("reactive")
+class ReactiveEventLoadTest extends AbstractEventLoadTest {
+
+    @Override
+    protected String mode() {
+        return "reactive";
+    }
+}
@@ -0,0 +1,12 @@
+package dev.avorakh.gcp.template.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("virtual-threads")
+class VirtualThreadEventLoadTest extends AbstractEventLoadTest {
+
+    @Override
+    protected String mode() {
+        return "virtual-threads";
+    }
+}
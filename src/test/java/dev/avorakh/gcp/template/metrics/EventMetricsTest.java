@@ -0,0 +1,75 @@
+package dev.avorakh.gcp.template.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EventMetrics Tests")
+class EventMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventMetrics sut;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new EventMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should track in-flight publishes")
+    void shouldTrackInFlightPublishes() {
+
+        Timer.Sample first = sut.startPublish();
+        sut.startPublish();
+
+        assertThat(inFlight()).isEqualTo(2);
+
+        sut.stopPublish(first, "TEST_EVENT", null);
+
+        assertThat(inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should tag failed publishes with the unwrapped error class")
+    void shouldTagFailedPublishesWithErrorClass() {
+
+        sut.stopPublish(sut.startPublish(), "TEST_EVENT", new CompletionException(new IllegalStateException("boom")));
+        sut.stopPublish(sut.startPublish(), null, null);
+
+        assertThat(meterRegistry.get(EventMetrics.PUBLISHED_COUNTER)
+                           .tags("eventType", "TEST_EVENT", "outcome", "failure", "error", "IllegalStateException")
+                           .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(EventMetrics.PUBLISH_TIMER)
+                           .tags("eventType", "unknown", "outcome", "success", "error", "none")
+                           .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record failed persistence and rethrow the error")
+    void shouldRecordFailedPersistence() {
+
+        sut.recordPersistence("direct", () -> {
+        });
+
+        assertThatThrownBy(() -> sut.recordPersistence("direct", () -> {
+            throw new IllegalStateException("Unable to save");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get(EventMetrics.PERSISTENCE_TIMER).tags("mode", "direct", "outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(EventMetrics.PERSISTENCE_TIMER).tags("mode", "direct", "outcome", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get(EventMetrics.PUBLISH_IN_FLIGHT_GAUGE).gauge().value();
+    }
+}
@@ -1,8 +1,14 @@
 package dev.avorakh.gcp.template.repository;
 
 import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventMessageSummary;
 import dev.avorakh.gcp.template.test.PostgreSQLContainerUtil;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -13,17 +19,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -31,6 +46,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 class EventMessageRepositoryTest {
 
     private static final PostgreSQLContainer<?> postgres = PostgreSQLContainerUtil.createContainer();
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2024-01-05T00:00:00Z");
 
     @BeforeAll
     static void beforeAll() {
@@ -41,7 +57,8 @@ class EventMessageRepositoryTest {
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         PostgreSQLContainerUtil.configureProperties(registry, postgres);
-        PostgreSQLContainerUtil.configureDDLGenerationProperties(registry, "create-drop");
+        PostgreSQLContainerUtil.configureDDLGenerationProperties(registry, "validate");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
     }
 
     private EventMessage testEventMessage;
@@ -51,6 +68,9 @@ class EventMessageRepositoryTest {
     @Autowired
     private EventMessageRepository repository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         repository.deleteAll();
@@ -61,8 +81,8 @@ class EventMessageRepositoryTest {
                 .eventType("TEST_EVENT")
                 .eventData(eventData)
                 .messageId("msg-123")
-                .created("2024-01-01T00:00:00Z")
-                .modified("2024-01-01T00:00:00Z")
+                .created(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
+                .modified(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
                 .build();
     }
 
@@ -101,6 +121,17 @@ class EventMessageRepositoryTest {
         assertThat(found.get().getId()).isEqualTo(testId);
     }
 
+    @Test
+    @DisplayName("Should find the latest event message by ID")
+    void shouldFindLatestEventMessageById() {
+        repository.save(testEventMessage);
+
+        Optional<EventMessage> found = repository.findFirstByIdOrderByCreatedDesc(testId);
+
+        assertThat(found).get().extracting(EventMessage :: getMessageId).isEqualTo("msg-123");
+        assertThat(repository.findFirstByIdOrderByCreatedDesc(UUID.randomUUID())).isEmpty();
+    }
+
     @Test
     @DisplayName("Should return empty when event message not found")
     void shouldReturnEmptyWhenNotFound() {
@@ -116,7 +147,7 @@ class EventMessageRepositoryTest {
                 .eventType("EVENT_TYPE_1")
                 .eventData(Map.of("data", "value1"))
                 .messageId("msg-1")
-                .created("2024-01-01T00:00:00Z")
+                .created(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
                 .build();
 
         var message2 = EventMessage.builder()
@@ -124,7 +155,7 @@ class EventMessageRepositoryTest {
                 .eventType("EVENT_TYPE_2")
                 .eventData(Map.of("data", "value2"))
                 .messageId("msg-2")
-                .created("2024-01-02T00:00:00Z")
+                .created(OffsetDateTime.parse("2024-01-02T00:00:00Z"))
                 .build();
 
         repository.save(message1);
@@ -149,12 +180,12 @@ class EventMessageRepositoryTest {
 
         saved.setEventType(newEventType);
         saved.setEventData(updatedEventData);
-        saved.setModified("2024-01-02T00:00:00Z");
+        saved.setModified(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
         EventMessage actualUpdated = repository.save(saved);
 
         assertThat(actualUpdated.getEventType()).isEqualTo(newEventType);
         assertThat(actualUpdated.getEventData().get("newKey")).isEqualTo("newValue");
-        assertThat(actualUpdated.getModified()).isEqualTo("2024-01-02T00:00:00Z");
+        assertThat(actualUpdated.getModified()).isEqualTo(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
     }
 
     @Test
@@ -212,7 +243,7 @@ class EventMessageRepositoryTest {
                 .eventType("COMPLEX_EVENT")
                 .eventData(complexData)
                 .messageId("complex-msg")
-                .created("2024-01-01T00:00:00Z")
+                .created(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
                 .build();
 
         EventMessage actualSaved = repository.save(message);
@@ -239,7 +270,7 @@ class EventMessageRepositoryTest {
                                 .eventType("ANOTHER_EVENT")
                                 .eventData(Map.of("data", "value"))
                                 .messageId("msg-2")
-                                .created("2024-01-01T00:00:00Z")
+                                .created(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
                                 .build());
 
         long count = repository.count();
@@ -259,6 +290,220 @@ class EventMessageRepositoryTest {
         assertThat(exists).isTrue();
     }
 
+    @Test
+    @DisplayName("Should insert new event message with a single statement and no select")
+    void shouldInsertNewEventMessageWithSingleStatement() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        repository.saveAndFlush(testEventMessage);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should update loaded event message instead of inserting it")
+    void shouldUpdateLoadedEventMessage() {
+        repository.saveAndFlush(testEventMessage);
+        entityManager.clear();
+
+        EventMessage loaded = repository.findById(testId).orElseThrow();
+        assertThat(loaded.isNew()).isFalse();
+
+        loaded.setMessageId("msg-456");
+        repository.saveAndFlush(loaded);
+        entityManager.clear();
+
+        assertThat(repository.findById(testId)).get()
+                .extracting(EventMessage :: getMessageId)
+                .isEqualTo("msg-456");
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should find oldest unpublished event messages")
+    void shouldFindOldestUnpublishedEventMessages() {
+        repository.save(testEventMessage);
+        var newest = unpublishedEventMessage(OffsetDateTime.parse("2024-01-03T00:00:00Z"));
+        var oldest = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        var middle = unpublishedEventMessage(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
+        repository.saveAll(List.of(newest, oldest, middle));
+        repository.flush();
+
+        List<EventMessage> actual = repository.findUnclaimedForUpdate(OffsetDateTime.parse("2023-12-31T00:00:00Z"), NOW, 2);
+
+        assertThat(actual).extracting(EventMessage :: getId)
+                .containsExactly(oldest.getId(), middle.getId());
+    }
+
+    @Test
+    @DisplayName("Should skip unpublished event messages created before the lookback")
+    void shouldSkipUnpublishedEventMessagesBeforeLookback() {
+        var old = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        var recent = unpublishedEventMessage(OffsetDateTime.parse("2024-01-03T00:00:00Z"));
+        repository.saveAll(List.of(old, recent));
+        repository.flush();
+
+        List<EventMessage> actual = repository.findUnclaimedForUpdate(OffsetDateTime.parse("2024-01-02T00:00:00Z"), NOW, 10);
+
+        assertThat(actual).extracting(EventMessage :: getId).containsExactly(recent.getId());
+    }
+
+    @Test
+    @DisplayName("Should skip claimed event messages until their lease runs out")
+    void shouldSkipClaimedEventMessagesUntilLeaseRunsOut() {
+        var claimed = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        var unclaimed = unpublishedEventMessage(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
+        repository.saveAll(List.of(claimed, unclaimed));
+        repository.flush();
+
+        int updated = repository.claim(List.of(claimed.getId()), OffsetDateTime.parse("2023-12-31T00:00:00Z"),
+                                       NOW.plusSeconds(30));
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(repository.findUnclaimedForUpdate(OffsetDateTime.parse("2023-12-31T00:00:00Z"), NOW, 10))
+                .extracting(EventMessage :: getId)
+                .containsExactly(unclaimed.getId());
+        assertThat(repository.findUnclaimedForUpdate(OffsetDateTime.parse("2023-12-31T00:00:00Z"), NOW.plusMinutes(1), 10))
+                .extracting(EventMessage :: getId)
+                .containsExactly(claimed.getId(), unclaimed.getId());
+    }
+
+    @Test
+    @DisplayName("Should store message id and release the lease of a relayed event message")
+    void shouldMarkEventMessagePublished() {
+        var pending = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        repository.saveAndFlush(pending);
+        repository.claim(List.of(pending.getId()), OffsetDateTime.parse("2023-12-31T00:00:00Z"), NOW.plusSeconds(30));
+
+        int updated = repository.markPublished(pending.getId(), pending.getCreated(), "msg-relayed", NOW);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        EventMessage actual = repository.findById(pending.getId()).orElseThrow();
+        assertThat(actual.getMessageId()).isEqualTo("msg-relayed");
+        assertThat(actual.getModified()).isAtSameInstantAs(NOW);
+        assertThat(actual.getClaimedUntil()).isNull();
+        assertThat(repository.findUnclaimedForUpdate(OffsetDateTime.parse("2023-12-31T00:00:00Z"), NOW, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find event messages by ids created since a time")
+    void shouldFindEventMessagesByIdsCreatedSince() {
+        var old = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        var recent = unpublishedEventMessage(OffsetDateTime.parse("2024-01-03T00:00:00Z"));
+        repository.saveAll(List.of(old, recent));
+        repository.flush();
+
+        List<EventMessage> actual = repository.findByIdInAndCreatedGreaterThanEqual(
+                List.of(old.getId(), recent.getId()), OffsetDateTime.parse("2024-01-02T00:00:00Z"));
+
+        assertThat(actual).extracting(EventMessage :: getId).containsExactly(recent.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should reject a retried event id and fill in the message id of the stored failure without a transaction")
+    void shouldUpdateMissingMessageIdOfStoredFailure() {
+        var failed = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        repository.save(failed);
+        var retried = unpublishedEventMessage(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
+        retried.setId(failed.getId());
+        retried.setMessageId("msg-retried");
+
+        assertThatThrownBy(() -> repository.save(retried)).isInstanceOf(DataIntegrityViolationException.class);
+        int actual = repository.updateMissingMessageId(failed.getId(), "msg-retried", NOW);
+
+        assertThat(actual).isEqualTo(1);
+        assertThat(repository.findFirstByIdOrderByCreatedDesc(failed.getId())).get()
+                .extracting(EventMessage :: getMessageId)
+                .isEqualTo("msg-retried");
+        assertThat(repository.updateMissingMessageId(failed.getId(), "msg-other", NOW)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should insert event messages with binary COPY")
+    void shouldCopyEventMessages() {
+        var unpublished = unpublishedEventMessage(OffsetDateTime.parse("2024-01-02T10:15:30.123456+02:00"));
+        unpublished.setEventData(toTestEventData());
+
+        long actual = repository.copyAll(List.of(testEventMessage, unpublished));
+        entityManager.clear();
+
+        assertThat(actual).isEqualTo(2);
+        EventMessage copied = repository.findById(unpublished.getId()).orElseThrow();
+        assertThat(copied.getEventType()).isEqualTo("OUTBOX_EVENT");
+        assertThat(copied.getEventData()).isEqualTo(eventData);
+        assertThat(copied.getMessageId()).isNull();
+        assertThat(copied.getCreated()).isAtSameInstantAs(OffsetDateTime.parse("2024-01-02T08:15:30.123456Z"));
+        assertThat(repository.findById(testId)).get()
+                .extracting(EventMessage :: getMessageId)
+                .isEqualTo("msg-123");
+    }
+
+    @Test
+    @DisplayName("Should list event summaries page by page newest first")
+    void shouldFindSummariesWithKeysetPagination() {
+        OffsetDateTime created = OffsetDateTime.parse("2024-01-02T00:00:00Z");
+        var first = unpublishedEventMessage(created);
+        var second = unpublishedEventMessage(created);
+        var third = unpublishedEventMessage(created.minusHours(1));
+        repository.saveAll(List.of(third, first, second));
+        repository.flush();
+        var filter = EventMessageFilter.builder().from(created.minusDays(1)).build();
+        // same created, ties are broken by id in Postgres order, which compares the bytes unsigned like the hex string
+        List<UUID> newestFirst = Stream.of(first, second)
+                .map(EventMessage :: getId)
+                .sorted(Comparator.comparing(UUID :: toString).reversed())
+                .collect(Collectors.toCollection(ArrayList :: new));
+        newestFirst.add(third.getId());
+
+        List<EventMessageSummary> firstPage = repository.findSummaries(filter, null, 2);
+        List<EventMessageSummary> secondPage = repository.findSummaries(filter, EventCursor.after(firstPage.getLast()), 2);
+
+        assertThat(firstPage).extracting(EventMessageSummary :: id).containsExactlyElementsOf(newestFirst.subList(0, 2));
+        assertThat(secondPage).extracting(EventMessageSummary :: id).containsExactly(newestFirst.get(2));
+    }
+
+    @Test
+    @DisplayName("Should filter event summaries by type, message id and time range")
+    void shouldFilterSummaries() {
+        repository.save(testEventMessage);
+        var other = unpublishedEventMessage(OffsetDateTime.parse("2024-01-01T12:00:00Z"));
+        repository.save(other);
+        repository.flush();
+        var range = EventMessageFilter.builder()
+                .from(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
+                .to(OffsetDateTime.parse("2024-01-02T00:00:00Z"))
+                .build();
+
+        assertThat(repository.findSummaries(range.toBuilder().eventType("TEST_EVENT").build(), null, 10))
+                .extracting(EventMessageSummary :: id).containsExactly(testId);
+        assertThat(repository.findSummaries(range.toBuilder().messageId("msg-123").build(), null, 10))
+                .extracting(EventMessageSummary :: id).containsExactly(testId);
+        assertThat(repository.findSummaries(range.toBuilder().from(OffsetDateTime.parse("2024-01-01T06:00:00Z")).build(), null, 10))
+                .extracting(EventMessageSummary :: id).containsExactly(other.getId());
+    }
+
+    private static EventMessage unpublishedEventMessage(OffsetDateTime created) {
+        return EventMessage.builder()
+                .id(UUID.randomUUID())
+                .eventType("OUTBOX_EVENT")
+                .eventData(Map.of("data", "value"))
+                .created(created)
+                .modified(created)
+                .build();
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
     private static @NotNull Map<String, Object> toTestEventData() {
         Map<String, Object> eventData = new HashMap<>();
         eventData.put("key1", "value1");
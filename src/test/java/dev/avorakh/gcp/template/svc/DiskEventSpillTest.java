@@ -0,0 +1,222 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+
+import dev.avorakh.gcp.template.config.PublishRetryProperties;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DiskEventSpill Tests")
+class DiskEventSpillTest {
+
+    private static final String TOPIC = "test-topic";
+    private static final String OTHER_TOPIC = "other-topic";
+    private static final int MAX_DRAIN_ATTEMPTS = 3;
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private PubSubPublisherTemplate pubSubPublisherTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DiskEventSpill sut;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = newSpill();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    @DisplayName("Should spill only transient publish failures")
+    void shouldSpillOnlyTransientFailures() {
+
+        assertThat(sut.isSpillable(Status.UNAVAILABLE.asRuntimeException())).isTrue();
+        assertThat(sut.isSpillable(Status.NOT_FOUND.asRuntimeException())).isFalse();
+        assertThat(sut.isSpillable(Status.INVALID_ARGUMENT.asRuntimeException())).isFalse();
+        assertThat(sut.isSpillable(Status.PERMISSION_DENIED.asRuntimeException())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the spilling state per topic")
+    void shouldKeepSpillingStatePerTopic() {
+
+        assertThat(sut.spill(TOPIC, message("first"))).isTrue();
+
+        assertThat(sut.isSpilling(TOPIC)).isTrue();
+        assertThat(sut.isSpilling(OTHER_TOPIC)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should refuse to spill a message with an ordering key, a replay would break the order of its key")
+    void shouldNotSpillMessageWithOrderingKey() {
+        var ordered = message("ordered").toBuilder().setOrderingKey("customer-1").build();
+
+        assertThat(sut.spill(TOPIC, ordered)).isFalse();
+
+        assertThat(sut.isSpilling(TOPIC)).isFalse();
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drain spilled messages in order, commit them and stop spilling the topic")
+    void shouldDrainAndCommitSpilledMessages() {
+        sut.spill(TOPIC, message("first"));
+        sut.spill(TOPIC, message("second"));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.drain();
+
+        verify(pubSubPublisherTemplate).publish(TOPIC, message("first"));
+        verify(pubSubPublisherTemplate).publish(TOPIC, message("second"));
+        assertThat(sut.isSpilling(TOPIC)).isFalse();
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isZero();
+        assertThat(meterRegistry.get(EventMetrics.SPILL_DRAINED_COUNTER).tag("outcome", "success").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should keep the backlog while Pub/Sub is unavailable and drain it after recovery")
+    void shouldDrainBacklogAfterRecovery() {
+        sut.spill(TOPIC, message("first"));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.drain();
+
+        assertThat(sut.isSpilling(TOPIC)).isTrue();
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isEqualTo(1.0);
+
+        sut.drain();
+
+        assertThat(sut.isSpilling(TOPIC)).isFalse();
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an oldest message that fails with a permanent error and drain the rest")
+    void shouldDeadLetterPermanentFailure() {
+        sut.spill(OTHER_TOPIC, message("poison"));
+        sut.spill(TOPIC, message("second"));
+        when(pubSubPublisherTemplate.publish(eq(OTHER_TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.NOT_FOUND.asRuntimeException()));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.drain();
+        sut.drain();
+
+        verify(pubSubPublisherTemplate).publish(TOPIC, message("second"));
+        assertThat(deadLettered("permanent")).isEqualTo(1.0);
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isZero();
+        try (var deadLetters = new SpillLog(directory.resolve(DiskEventSpill.DEAD_LETTER_DIRECTORY), segmentSize())) {
+            assertThat(deadLetters.read(10)).extracting(SpillLog.Entry::message).containsExactly(message("poison"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an oldest message after the maximum number of failed drains")
+    void shouldDeadLetterAfterMaxDrainAttempts() {
+        sut.spill(TOPIC, message("stuck"));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()));
+
+        for (int i = 0; i < MAX_DRAIN_ATTEMPTS - 1; i++) {
+            sut.drain();
+        }
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isEqualTo(1.0);
+
+        sut.drain();
+
+        verify(pubSubPublisherTemplate, times(MAX_DRAIN_ATTEMPTS)).publish(eq(TOPIC), any(PubsubMessage.class));
+        assertThat(deadLettered("attempts")).isEqualTo(1.0);
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should recover the backlog after a restart and keep spilling its topics")
+    void shouldRecoverBacklogAfterRestart() {
+        sut.spill(TOPIC, message("first"));
+        sut.close();
+
+        meterRegistry = new SimpleMeterRegistry();
+        sut = newSpill();
+
+        assertThat(sut.isSpilling(TOPIC)).isTrue();
+        assertThat(sut.isSpilling(OTHER_TOPIC)).isFalse();
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isEqualTo(1.0);
+
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.drain();
+
+        verify(pubSubPublisherTemplate).publish(TOPIC, message("first"));
+        assertThat(meterRegistry.get(EventMetrics.SPILL_BACKLOG_GAUGE).gauge().value()).isZero();
+    }
+
+    private DiskEventSpill newSpill() {
+        var retryProperties = new PublishRetryProperties(
+                true, 1, Duration.ZERO, Duration.ZERO, 1.0, Duration.ZERO,
+                Set.of(Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED), new PublishRetryProperties.Budget(0, 0, 0));
+        var spill = new DiskEventSpill(pubSubPublisherTemplate, new EventMetrics(meterRegistry),
+                                       new PublishRetryExecutor(retryProperties, meterRegistry));
+        spill.setDirectory(directory);
+        spill.setSegmentSize(DataSize.ofBytes(segmentSize()));
+        spill.setDrainRate(100);
+        // the background drainer never runs during a test, the tests drain themselves
+        spill.setDrainIntervalMs(Duration.ofHours(1).toMillis());
+        spill.setPublishTimeoutMs(1000);
+        spill.setMaxDrainAttempts(MAX_DRAIN_ATTEMPTS);
+        spill.init();
+        return spill;
+    }
+
+    private double deadLettered(String reason) {
+        return meterRegistry.get(EventMetrics.SPILL_DEAD_LETTERED_COUNTER).tag("reason", reason).counter().count();
+    }
+
+    private static int segmentSize() {
+        return 4096;
+    }
+
+    private static PubsubMessage message(String data) {
+        return PubsubMessage.newBuilder()
+                .setData(ByteString.copyFromUtf8(data))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.config.EventAdmissionProperties;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static dev.avorakh.gcp.template.svc.EventAdmissionControl.IN_FLIGHT_GAUGE;
+import static dev.avorakh.gcp.template.svc.EventAdmissionControl.REJECTED_COUNTER;
+import static dev.avorakh.gcp.template.svc.EventAdmissionControl.SATURATION_GAUGE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventAdmissionControl Tests")
+class EventAdmissionControlTest {
+
+    private static final String LIMITED_TYPE = "limited-event";
+    private static final String OTHER_TYPE = "other-event";
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventAdmissionControl sut;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        var properties = new EventAdmissionProperties(true, 4, Map.of(LIMITED_TYPE, 1), Duration.ofSeconds(2));
+        sut = new EventAdmissionControl(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should admit events up to the node limit and again after release")
+    void shouldAdmitUpToNodeLimit() {
+
+        Optional<EventAdmissionControl.Permit> permit = sut.tryAcquire(events(OTHER_TYPE, 4));
+
+        assertThat(permit).isPresent();
+        assertThat(sut.tryAcquire(events(OTHER_TYPE, 1))).isEmpty();
+        assertThat(gauge(SATURATION_GAUGE, "all")).isEqualTo(1.0);
+
+        permit.get().release();
+        permit.get().release();
+
+        assertThat(gauge(IN_FLIGHT_GAUGE, "all")).isZero();
+        assertThat(sut.tryAcquire(events(OTHER_TYPE, 4))).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should tell requests that exceed a limit on their own apart from a temporarily full node")
+    void shouldDetectRequestsExceedingLimits() {
+
+        assertThat(sut.exceedsLimits(events(OTHER_TYPE, 4))).isFalse();
+        assertThat(sut.exceedsLimits(events(OTHER_TYPE, 5))).isTrue();
+        assertThat(sut.exceedsLimits(events(LIMITED_TYPE, 2))).isTrue();
+        assertThat(gauge(IN_FLIGHT_GAUGE, "all")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should limit event types separately and roll back partially acquired permits")
+    void shouldLimitEventTypes() {
+
+        assertThat(sut.tryAcquire(events(LIMITED_TYPE, 1))).isPresent();
+
+        assertThat(sut.tryAcquire(events(LIMITED_TYPE, 1))).isEmpty();
+        assertThat(gauge(IN_FLIGHT_GAUGE, LIMITED_TYPE)).isEqualTo(1);
+        assertThat(gauge(IN_FLIGHT_GAUGE, "all")).isEqualTo(1);
+        assertThat(meterRegistry.get(REJECTED_COUNTER).tag("eventType", LIMITED_TYPE).counter().count()).isEqualTo(1);
+
+        assertThat(sut.tryAcquire(events(OTHER_TYPE, 3))).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should admit every request when disabled")
+    void shouldAdmitEverythingWhenDisabled() {
+        var properties = new EventAdmissionProperties(false, 1, Map.of(), Duration.ofSeconds(1));
+        var disabled = new EventAdmissionControl(properties, new SimpleMeterRegistry());
+
+        assertThat(disabled.tryAcquire(events(OTHER_TYPE, 10))).isPresent();
+        assertThat(disabled.tryAcquire(events(OTHER_TYPE, 10))).isPresent();
+    }
+
+    private double gauge(String name, String eventType) {
+        return meterRegistry.get(name).tag("eventType", eventType).gauge().value();
+    }
+
+    private static List<RequestEventDto> events(String type, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new RequestEventDto("event-" + i, type, null))
+                .toList();
+    }
+}
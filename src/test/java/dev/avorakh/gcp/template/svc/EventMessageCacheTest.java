@@ -0,0 +1,76 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.model.EventMessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventMessageCache Tests")
+class EventMessageCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EventMessageCache sut;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new EventMessageCache(meterRegistry);
+        sut.setMaximumSize(100);
+        sut.setTtl(Duration.ofMinutes(1));
+        sut.init();
+    }
+
+    @Test
+    @DisplayName("Should cache published event by id and message id")
+    void shouldCachePublishedEvent() {
+        var event = event("msg-1");
+
+        sut.put(event);
+
+        assertThat(sut.getById(event.id())).contains(event);
+        assertThat(sut.getByMessageId("msg-1")).contains(event);
+    }
+
+    @Test
+    @DisplayName("Should not cache unpublished event")
+    void shouldNotCacheUnpublishedEvent() {
+        var event = event(null);
+
+        sut.put(event);
+
+        assertThat(sut.getById(event.id())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report hits and misses per cache")
+    void shouldReportHitsAndMisses() {
+        var event = event("msg-1");
+        sut.put(event);
+
+        sut.getById(event.id());
+        sut.getById(UUID.randomUUID());
+        sut.getByMessageId("unknown");
+
+        assertThat(gets(EventMessageCache.BY_ID_CACHE, "hit")).isEqualTo(1);
+        assertThat(gets(EventMessageCache.BY_ID_CACHE, "miss")).isEqualTo(1);
+        assertThat(gets(EventMessageCache.BY_MESSAGE_ID_CACHE, "miss")).isEqualTo(1);
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    private static EventMessageDto event(String messageId) {
+        OffsetDateTime created = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        return new EventMessageDto(UUID.randomUUID(), "TEST_EVENT", Map.of("data", "value"), messageId, created, created);
+    }
+}
@@ -0,0 +1,157 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import dev.avorakh.gcp.template.test.PostgreSQLContainerUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("EventMessagePartitionMaintenance Tests")
+class EventMessagePartitionMaintenanceTest {
+
+    private static final PostgreSQLContainer<?> postgres = PostgreSQLContainerUtil.createContainer();
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLContainerUtil.configureProperties(registry, postgres);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventMessageRepository repository;
+
+    private EventMessagePartitionMaintenance sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new EventMessagePartitionMaintenance(jdbcTemplate);
+        sut.setPremakeDays(1);
+        sut.setHashPartitions(2);
+        sut.setRetention(Duration.ofDays(2));
+    }
+
+    @Test
+    @DisplayName("Should create today's and the next partitions with hash sub-partitions")
+    void shouldCreatePartitionsAhead() {
+
+        sut.maintain(LocalDate.parse("2024-01-01"));
+
+        assertThat(sut.partitions())
+                .contains("event_messages_20240101", "event_messages_20240102", "event_messages_default")
+                .doesNotContain("event_messages_20240103");
+        assertThat(subPartitions("event_messages_20240101")).containsExactly("event_messages_20240101_0", "event_messages_20240101_1");
+
+        var eventMessage = eventMessage(OffsetDateTime.parse("2024-01-01T12:00:00Z"));
+        repository.saveAndFlush(eventMessage);
+
+        assertThat(count("event_messages_20240101")).isEqualTo(1);
+        assertThat(count("event_messages_default")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should move rows from the default partition into a new partition")
+    void shouldMoveRowsFromDefaultPartition() {
+        repository.saveAndFlush(eventMessage(OffsetDateTime.parse("2024-01-01T12:00:00Z")));
+        assertThat(count("event_messages_default")).isEqualTo(1);
+
+        sut.maintain(LocalDate.parse("2024-01-01"));
+
+        assertThat(count("event_messages_default")).isZero();
+        assertThat(count("event_messages_20240101")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop partitions older than the retention")
+    void shouldDropExpiredPartitions() {
+        sut.maintain(LocalDate.parse("2024-01-01"));
+        var expired = eventMessage(OffsetDateTime.parse("2024-01-01T12:00:00Z"));
+        repository.saveAndFlush(expired);
+
+        sut.maintain(LocalDate.parse("2024-01-04"));
+
+        assertThat(sut.partitions())
+                .doesNotContain("event_messages_20240101")
+                .contains("event_messages_20240102", "event_messages_20240104", "event_messages_20240105");
+        assertThat(repository.count()).isZero();
+        assertThat(registeredIds(expired.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject an id that is already stored in another partition")
+    void shouldRejectDuplicateIdAcrossPartitions() {
+        sut.maintain(LocalDate.parse("2024-01-01"));
+        var stored = eventMessage(OffsetDateTime.parse("2024-01-01T12:00:00Z"));
+        // COPY keeps the stored row out of the persistence context, so the duplicate reaches the database
+        repository.copyAll(List.of(stored));
+        assertThat(registeredIds(stored.getId())).isEqualTo(1);
+
+        var duplicate = eventMessage(OffsetDateTime.parse("2024-01-02T12:00:00Z"));
+        duplicate.setId(stored.getId());
+
+        assertThatThrownBy(() -> repository.saveAndFlush(duplicate)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private long registeredIds(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM event_ids WHERE id = ?", Long.class, id);
+    }
+
+    private long count(String partition) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition, Long.class);
+    }
+
+    private List<String> subPartitions(String partition) {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = ?::regclass
+                ORDER BY c.relname
+                """, String.class, partition);
+    }
+
+    private static EventMessage eventMessage(OffsetDateTime created) {
+        return EventMessage.builder()
+                .id(UUID.randomUUID())
+                .eventType("PARTITIONED_EVENT")
+                .eventData(Map.of("data", "value"))
+                .messageId("msg-1")
+                .created(created)
+                .modified(created)
+                .build();
+    }
+}
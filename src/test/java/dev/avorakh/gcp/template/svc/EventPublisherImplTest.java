@@ -1,25 +1,40 @@
 package dev.avorakh.gcp.template.svc;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
 
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PublishRetryProperties;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
 import dev.avorakh.gcp.template.test.PubSubEmulatorContainerUtil;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.testcontainers.gcloud.PubSubEmulatorContainer;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -28,8 +43,11 @@ import static dev.avorakh.gcp.template.test.PubSubEmulatorContainerUtil.TOPIC_NA
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -38,13 +56,19 @@ class EventPublisherImplTest {
 
 
     private static final PubSubEmulatorContainer PUBSUB_EMULATOR = PubSubEmulatorContainerUtil.createContainer();
+    private static final String POST_PROCESSING_THREAD_NAME = "test-post-processing";
 
-    @Mock
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private PublishedEventPostProcessor publishedEventPostProcessor;
 
     private EventPublisherImpl eventPublisher;
     private PubSubPublisherTemplate pubSubPublisherTemplate;
     private ObjectMapper objectMapper;
+    private ExecutorService postProcessingExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private EventSpill eventSpill;
+    private PublishRetryProperties retryProperties;
+    private OrderingKeyResolver orderingKeyResolver;
 
     @BeforeAll
     static void beforeAll() throws IOException {
@@ -64,14 +88,30 @@ class EventPublisherImplTest {
     void setUp() throws IOException {
         pubSubPublisherTemplate = PubSubEmulatorContainerUtil.createPubSubPublisherTemplate(PUBSUB_EMULATOR);
         objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        postProcessingExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, POST_PROCESSING_THREAD_NAME));
+        eventSpill = EventSpill.DISABLED;
+        retryProperties = PublishRetryProperties.DISABLED;
+        orderingKeyResolver = OrderingKeyResolver.DISABLED;
 
-        eventPublisher = new EventPublisherImpl(
+        eventPublisher = newEventPublisher(TOPIC_NAME);
+    }
+
+    private EventPublisherImpl newEventPublisher(String topic) {
+        return new EventPublisherImpl(
                 pubSubPublisherTemplate,
-                objectMapper,
-                publishedEventPostProcessor
+                new PubsubMessageConverterImpl(objectMapper, orderingKeyResolver),
+                new PublishedEventPostProcessorChain(List.of(publishedEventPostProcessor), postProcessingExecutor),
+                new EventMetrics(meterRegistry),
+                new EventTopicRouter(new PubSubPublisherProperties(topic, null, null, null, null)),
+                new PublishRetryExecutor(retryProperties, meterRegistry),
+                eventSpill
         );
+    }
 
-        eventPublisher.setTopic(TOPIC_NAME);
+    @AfterEach
+    void tearDown() {
+        postProcessingExecutor.shutdownNow();
     }
 
     @Test
@@ -80,7 +120,7 @@ class EventPublisherImplTest {
 
         String eventId = "test-event-id-123";
         String eventType = "TEST_EVENT_TYPE";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         var requestEvent = new RequestEventDto(eventId, eventType, payload);
 
         var  processedEventDto = PublishedEventDto.builder()
@@ -108,10 +148,10 @@ class EventPublisherImplTest {
 
         String eventId = "test-event-id-456";
         String eventType = "TEST_EVENT_TYPE";
-        String payload = "{\"key\":\"value\"}";
+        JsonNode payload = json("{\"key\":\"value\"}");
         var requestEvent = new RequestEventDto(eventId, eventType, payload);
 
-        eventPublisher.setTopic("non-existent-topic");
+        eventPublisher = newEventPublisher("non-existent-topic");
 
         var processedEventDto = PublishedEventDto.builder()
                 .success(false)
@@ -132,13 +172,86 @@ class EventPublisherImplTest {
         verify(publishedEventPostProcessor).process(eq(requestEvent), any(PublishedEventDto.class));
     }
 
+    @Test
+    @DisplayName("Should spill a publish that failed with a transient error and answer it as accepted without message id")
+    void shouldSpillTransientPublishFailure() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var requestEvent = new RequestEventDto("test-event-id-spill", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+        pubSubPublisherTemplate = mock(PubSubPublisherTemplate.class);
+        when(pubSubPublisherTemplate.publish(eq(TOPIC_NAME), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()));
+        eventSpill = spillOfRetryableFailures();
+        when(eventSpill.spill(eq(TOPIC_NAME), any(PubsubMessage.class))).thenReturn(true);
+        eventPublisher = newEventPublisher(TOPIC_NAME);
+
+        when(publishedEventPostProcessor.process(eq(requestEvent), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        PublishedEventDto result = eventPublisher.publishEvent(requestEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.messageId()).isNull();
+        verify(eventSpill).spill(eq(TOPIC_NAME), any(PubsubMessage.class));
+    }
+
+    @Test
+    @DisplayName("Should answer a publish that failed with a permanent error as failed without spilling it")
+    void shouldNotSpillPermanentPublishFailure() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var requestEvent = new RequestEventDto("test-event-id-no-spill", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+        eventSpill = spillOfRetryableFailures();
+        eventPublisher = newEventPublisher("non-existent-topic");
+
+        when(publishedEventPostProcessor.process(eq(requestEvent), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        PublishedEventDto result = eventPublisher.publishEvent(requestEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.errorReason()).isNotNull();
+        verify(eventSpill, never()).spill(any(), any(PubsubMessage.class));
+    }
+
+    @Test
+    @DisplayName("Should not retry a message with an ordering key, its key is resumed right after the failure")
+    void shouldNotRetryMessageWithOrderingKey() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var requestEvent = new RequestEventDto("test-event-id-ordered", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"), "customer-1");
+        pubSubPublisherTemplate = mock(PubSubPublisherTemplate.class, Answers.RETURNS_DEEP_STUBS);
+        when(pubSubPublisherTemplate.publish(eq(TOPIC_NAME), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()));
+        retryProperties = new PublishRetryProperties(
+                true, 4, Duration.ofMillis(1), Duration.ofMillis(10), 2.0, Duration.ofSeconds(10),
+                Set.of(Status.Code.UNAVAILABLE), new PublishRetryProperties.Budget(0.1, 10, 100));
+        orderingKeyResolver = new OrderingKeyResolver(new PubSubPublisherProperties.Ordering(true, null));
+        eventPublisher = newEventPublisher(TOPIC_NAME);
+
+        when(publishedEventPostProcessor.process(eq(requestEvent), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        PublishedEventDto result = eventPublisher.publishEvent(requestEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isFalse();
+        verify(pubSubPublisherTemplate).publish(eq(TOPIC_NAME), any(PubsubMessage.class));
+        verify(pubSubPublisherTemplate.getPublisherFactory().createPublisher(TOPIC_NAME)).resumePublish("customer-1");
+    }
+
+    private EventSpill spillOfRetryableFailures() {
+        var retryableCodes = new PublishRetryExecutor(new PublishRetryProperties(
+                false, 1, Duration.ZERO, Duration.ZERO, 1.0, Duration.ZERO, Set.of(Status.Code.UNAVAILABLE),
+                new PublishRetryProperties.Budget(0, 0, 0)), meterRegistry);
+        EventSpill spill = mock(EventSpill.class);
+        when(spill.isSpillable(any())).thenAnswer(invocation -> retryableCodes.isRetryable(invocation.getArgument(0)));
+        return spill;
+    }
+
     @Test
     @DisplayName("Should correctly serialize event to PubSub message")
     void shouldCorrectlySerializeEventToPubSubMessage() throws ExecutionException, InterruptedException, TimeoutException {
 
         String eventId = "test-event-id-789";
         String eventType = "SERIALIZATION_TEST";
-        String payload = "{\"testKey\":\"testValue\",\"number\":42}";
+        JsonNode payload = json("{\"testKey\":\"testValue\",\"number\":42}");
         var requestEvent = new RequestEventDto(eventId, eventType, payload);
 
         var processedEventDto = PublishedEventDto.builder()
@@ -167,7 +280,7 @@ class EventPublisherImplTest {
 
         String eventId = "test-event-id-post-process";
         String eventType = "POST_PROCESS_TEST";
-        String payload = "{\"data\":\"test\"}";
+        JsonNode payload = json("{\"data\":\"test\"}");
         var requestEvent = new RequestEventDto(eventId, eventType, payload);
 
         var processedEventDto = PublishedEventDto.builder()
@@ -188,5 +301,115 @@ class EventPublisherImplTest {
 
         verify(publishedEventPostProcessor).process(eq(requestEvent), any(PublishedEventDto.class));
     }
-}
 
+    @Test
+    @DisplayName("Should publish batch of events and keep the request order")
+    void shouldPublishBatchOfEvents() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var requestEvents = List.of(
+                new RequestEventDto("test-event-id-batch-1", "BATCH_TEST", json("{\"index\":1}")),
+                new RequestEventDto("test-event-id-batch-2", "BATCH_TEST", json("{\"index\":2}")),
+                new RequestEventDto("test-event-id-batch-3", "BATCH_TEST", json("{\"index\":3}"))
+        );
+
+        when(publishedEventPostProcessor.process(any(RequestEventDto.class), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        CompletableFuture<List<PublishedEventDto>> future = eventPublisher.publishEvents(requestEvents);
+        List<PublishedEventDto> result = future.get(10, TimeUnit.SECONDS);
+
+        assertThat(result).hasSize(3);
+        assertThat(result).allSatisfy(published -> {
+            assertThat(published.success()).isTrue();
+            assertThat(published.messageId()).isNotNull();
+        });
+        assertThat(result).extracting(PublishedEventDto::messageId).doesNotHaveDuplicates();
+
+        requestEvents.forEach(event -> verify(publishedEventPostProcessor).process(eq(event), any(PublishedEventDto.class)));
+    }
+
+    @Test
+    @DisplayName("Should keep batch event published when its post processing fails")
+    void shouldKeepBatchEventPublishedWhenPostProcessingFails() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var okEvent = new RequestEventDto("test-event-id-batch-ok", "BATCH_TEST", json("{\"index\":1}"));
+        var failingEvent = new RequestEventDto("test-event-id-batch-fail", "BATCH_TEST", json("{\"index\":2}"));
+
+        when(publishedEventPostProcessor.process(eq(okEvent), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(publishedEventPostProcessor.process(eq(failingEvent), any(PublishedEventDto.class)))
+                .thenThrow(new IllegalStateException("Unable to save event"));
+
+        List<PublishedEventDto> result = eventPublisher.publishEvents(List.of(okEvent, failingEvent))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).success()).isTrue();
+        assertThat(result.get(1).success()).isTrue();
+        assertThat(result.get(1).messageId()).isNotNull();
+        assertThat(result.get(1).errorReason()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return message id and count the failure when post processing fails after publish")
+    void shouldReturnMessageIdWhenPostProcessingFails() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var requestEvent = new RequestEventDto("test-event-id-post-processing-fail", "POST_PROCESSING_TEST", json("{\"data\":\"test\"}"));
+
+        when(publishedEventPostProcessor.process(eq(requestEvent), any(PublishedEventDto.class)))
+                .thenThrow(new IllegalStateException("Unable to save event"));
+
+        PublishedEventDto result = eventPublisher.publishEvent(requestEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.messageId()).isNotNull();
+        assertThat(result.errorReason()).isNull();
+        assertThat(meterRegistry.get(EventMetrics.POST_PROCESSING_FAILED_COUNTER)
+                .tag("error", "IllegalStateException")
+                .counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should run post processing on the post-processing executor")
+    void shouldRunPostProcessingOnPostProcessingExecutor() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var requestEvent = new RequestEventDto("test-event-id-executor", "EXECUTOR_TEST", json("{\"data\":\"test\"}"));
+        var postProcessingThread = new AtomicReference<String>();
+
+        when(publishedEventPostProcessor.process(eq(requestEvent), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> {
+                    postProcessingThread.set(Thread.currentThread().getName());
+                    return invocation.getArgument(1);
+                });
+
+        PublishedEventDto result = eventPublisher.publishEvent(requestEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isTrue();
+        assertThat(postProcessingThread.get()).isEqualTo(POST_PROCESSING_THREAD_NAME);
+    }
+
+    @Test
+    @DisplayName("Should record publish metrics by event type and outcome")
+    void shouldRecordPublishMetrics() throws ExecutionException, InterruptedException, TimeoutException {
+
+        var okEvent = new RequestEventDto("test-event-id-metrics-ok", "METRICS_TEST", json("{\"data\":\"test\"}"));
+        var failingEvent = new RequestEventDto("test-event-id-metrics-fail", "METRICS_TEST", json("{\"data\":\"test\"}"));
+
+        when(publishedEventPostProcessor.process(any(RequestEventDto.class), any(PublishedEventDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        eventPublisher.publishEvent(okEvent).get(10, TimeUnit.SECONDS);
+        eventPublisher = newEventPublisher("non-existent-topic");
+        eventPublisher.publishEvent(failingEvent).get(10, TimeUnit.SECONDS);
+
+        assertThat(meterRegistry.get(EventMetrics.SERIALIZATION_TIMER).timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(EventMetrics.PUBLISH_TIMER)
+                           .tags("eventType", "METRICS_TEST", "outcome", "success")
+                           .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(EventMetrics.PUBLISHED_COUNTER)
+                           .tags("eventType", "METRICS_TEST", "outcome", "failure")
+                           .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(EventMetrics.PUBLISH_IN_FLIGHT_GAUGE).gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,214 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.EventCursor;
+import dev.avorakh.gcp.template.model.EventMessageDto;
+import dev.avorakh.gcp.template.model.EventMessageFilter;
+import dev.avorakh.gcp.template.model.EventMessageSummary;
+import dev.avorakh.gcp.template.model.EventPageDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventQueryService Tests")
+class EventQueryServiceTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private EventMessageRepository eventMessageRepository;
+
+    private EventMessageCache eventMessageCache;
+
+    private EventQueryService sut;
+
+    @BeforeEach
+    void setUp() {
+        eventMessageCache = new EventMessageCache(new SimpleMeterRegistry());
+        eventMessageCache.setMaximumSize(100);
+        eventMessageCache.setTtl(Duration.ofMinutes(1));
+        eventMessageCache.init();
+        sut = new EventQueryService(eventMessageRepository, eventMessageCache, Runnable::run);
+        sut.setLookback(Duration.ofDays(7));
+        sut.setMaxPageSize(3);
+    }
+
+    @Test
+    @DisplayName("Should return event message with its data by id")
+    void shouldFindEventMessageById() {
+        var id = UUID.randomUUID();
+        when(eventMessageRepository.findFirstByIdOrderByCreatedDesc(id)).thenReturn(Optional.of(EventMessage.builder()
+                .id(id)
+                .eventType("TEST_EVENT")
+                .eventData(Map.of("data", "value"))
+                .messageId("msg-1")
+                .created(CREATED)
+                .build()));
+
+        Optional<EventMessageDto> actual = sut.findById(id).join();
+
+        assertThat(actual).get()
+                .satisfies(dto -> {
+                    assertThat(dto.id()).isEqualTo(id);
+                    assertThat(dto.eventData()).containsEntry("data", "value");
+                    assertThat(dto.messageId()).isEqualTo("msg-1");
+                });
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups by id and message id from the cache")
+    void shouldServeRepeatedLookupsFromCache() {
+        var id = UUID.randomUUID();
+        when(eventMessageRepository.findFirstByIdOrderByCreatedDesc(id)).thenReturn(Optional.of(eventMessage(id, "msg-1")));
+
+        sut.findById(id).join();
+        Optional<EventMessageDto> byId = sut.findById(id).join();
+        Optional<EventMessageDto> byMessageId = sut.findByMessageId("msg-1").join();
+
+        assertThat(byId).get().extracting(EventMessageDto :: id).isEqualTo(id);
+        assertThat(byMessageId).get().extracting(EventMessageDto :: id).isEqualTo(id);
+        verify(eventMessageRepository, times(1)).findFirstByIdOrderByCreatedDesc(id);
+        verify(eventMessageRepository, never()).findFirstByMessageId(any());
+    }
+
+    @Test
+    @DisplayName("Should not cache unpublished event")
+    void shouldNotCacheUnpublishedEvent() {
+        var id = UUID.randomUUID();
+        when(eventMessageRepository.findFirstByIdOrderByCreatedDesc(id)).thenReturn(Optional.of(eventMessage(id, null)));
+
+        sut.findById(id).join();
+        sut.findById(id).join();
+
+        verify(eventMessageRepository, times(2)).findFirstByIdOrderByCreatedDesc(id);
+    }
+
+    @Test
+    @DisplayName("Should look up event by message id in repository on cache miss")
+    void shouldFindEventMessageByMessageId() {
+        var id = UUID.randomUUID();
+        when(eventMessageRepository.findFirstByMessageId("msg-1")).thenReturn(Optional.of(eventMessage(id, "msg-1")));
+
+        Optional<EventMessageDto> actual = sut.findByMessageId("msg-1").join();
+
+        assertThat(actual).get().extracting(EventMessageDto :: id).isEqualTo(id);
+        assertThat(eventMessageCache.getById(id)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should return empty result for unknown id")
+    void shouldReturnEmptyForUnknownId() {
+        var id = UUID.randomUUID();
+        when(eventMessageRepository.findFirstByIdOrderByCreatedDesc(id)).thenReturn(Optional.empty());
+
+        assertThat(sut.findById(id).join()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return next cursor after the last event when more events match")
+    void shouldReturnNextCursorWhenMoreEventsMatch() {
+        List<EventMessageSummary> summaries = summaries(4);
+        var filter = EventMessageFilter.builder().eventType("TEST_EVENT").from(CREATED.minusDays(1)).build();
+        when(eventMessageRepository.findSummaries(filter, null, 3)).thenReturn(summaries.subList(0, 3));
+
+        EventPageDto actual = sut.findEvents(filter, null, 2).join();
+
+        assertThat(actual.items()).containsExactlyElementsOf(summaries.subList(0, 2));
+        assertThat(EventCursor.decode(actual.next())).isEqualTo(EventCursor.after(summaries.get(1)));
+    }
+
+    @Test
+    @DisplayName("Should return last page without next cursor")
+    void shouldReturnLastPageWithoutCursor() {
+        List<EventMessageSummary> summaries = summaries(2);
+        var after = new EventCursor(CREATED, UUID.randomUUID());
+        var filter = EventMessageFilter.builder().from(CREATED.minusDays(1)).build();
+        when(eventMessageRepository.findSummaries(filter, after, 3)).thenReturn(summaries);
+
+        EventPageDto actual = sut.findEvents(filter, after, 2).join();
+
+        assertThat(actual.items()).containsExactlyElementsOf(summaries);
+        assertThat(actual.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should cap page size and bound listing without from by the lookback")
+    void shouldCapPageSizeAndApplyLookback() {
+        ArgumentCaptor<EventMessageFilter> filterCaptor = ArgumentCaptor.forClass(EventMessageFilter.class);
+        when(eventMessageRepository.findSummaries(any(), isNull(), eq(4))).thenReturn(List.of());
+
+        sut.findEvents(EventMessageFilter.builder().eventType("TEST_EVENT").build(), null, 10_000).join();
+
+        verify(eventMessageRepository).findSummaries(filterCaptor.capture(), isNull(), eq(4));
+        assertThat(filterCaptor.getValue().eventType()).isEqualTo("TEST_EVENT");
+        assertThat(filterCaptor.getValue().from())
+                .isCloseTo(OffsetDateTime.now(ZoneOffset.UTC).minusDays(7), within(1, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    @DisplayName("Should bound listing with to but without from by the lookback before to")
+    void shouldApplyLookbackBeforeTo() {
+        ArgumentCaptor<EventMessageFilter> filterCaptor = ArgumentCaptor.forClass(EventMessageFilter.class);
+        when(eventMessageRepository.findSummaries(any(), isNull(), eq(3))).thenReturn(List.of());
+
+        sut.findEvents(EventMessageFilter.builder().to(CREATED).build(), null, 2).join();
+
+        verify(eventMessageRepository).findSummaries(filterCaptor.capture(), isNull(), eq(3));
+        assertThat(filterCaptor.getValue().from()).isAtSameInstantAs(CREATED.minusDays(7));
+        assertThat(filterCaptor.getValue().to()).isAtSameInstantAs(CREATED);
+    }
+
+    @Test
+    @DisplayName("Should encode and decode cursor")
+    void shouldRoundTripCursor() {
+        var cursor = new EventCursor(OffsetDateTime.parse("2024-01-02T10:15:30.123456+02:00"), UUID.randomUUID());
+
+        EventCursor actual = EventCursor.decode(cursor.encode());
+
+        assertThat(actual.id()).isEqualTo(cursor.id());
+        assertThat(actual.created()).isAtSameInstantAs(cursor.created());
+    }
+
+    private static EventMessage eventMessage(UUID id, String messageId) {
+        return EventMessage.builder()
+                .id(id)
+                .eventType("TEST_EVENT")
+                .eventData(Map.of("data", "value"))
+                .messageId(messageId)
+                .created(CREATED)
+                .build();
+    }
+
+    private static List<EventMessageSummary> summaries(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new EventMessageSummary(UUID.randomUUID(), "TEST_EVENT", "msg-" + i, CREATED.minusSeconds(i), null))
+                .toList();
+    }
+}
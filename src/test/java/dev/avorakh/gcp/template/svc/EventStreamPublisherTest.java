@@ -0,0 +1,143 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.avorakh.gcp.template.config.EventAdmissionProperties;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventStreamPublisher Tests")
+class EventStreamPublisherTest {
+
+    private static final int WINDOW_SIZE = 4;
+
+    @Mock
+    private EventPublisher publisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EventStreamPublisher sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = newStreamPublisher(100);
+    }
+
+    @Test
+    @DisplayName("Should keep at most window size publishes outstanding and answer in input order")
+    void shouldBoundOutstandingPublishes() throws IOException {
+        var outstanding = new AtomicInteger();
+        var maxOutstanding = new AtomicInteger();
+        when(publisher.publishEvent(any(RequestEventDto.class))).thenAnswer(invocation -> {
+            RequestEventDto event = invocation.getArgument(0);
+            maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                outstanding.decrementAndGet();
+                return PublishedEventDto.builder().success(true).messageId(event.getId()).build();
+            }, CompletableFuture.delayedExecutor(2, TimeUnit.MILLISECONDS));
+        });
+
+        List<PublishedEventDto> results = publish(events(50));
+
+        assertThat(results).hasSize(50);
+        assertThat(results).extracting(PublishedEventDto::messageId)
+                .containsExactlyElementsOf(IntStream.range(0, 50).mapToObj(i -> "event-" + i).toList());
+        assertThat(maxOutstanding.get()).isLessThanOrEqualTo(WINDOW_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should answer a failed publish with an error line and continue")
+    void shouldAnswerFailedPublish() throws IOException {
+        when(publisher.publishEvent(any(RequestEventDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Topic not found")))
+                .thenReturn(CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).messageId("message-id").build()));
+
+        List<PublishedEventDto> results = publish(events(2));
+
+        assertThat(results.get(0).success()).isFalse();
+        assertThat(results.get(0).errorReason()).isEqualTo("Topic not found");
+        assertThat(results.get(1).messageId()).isEqualTo("message-id");
+    }
+
+    @Test
+    @DisplayName("Should wait for its own outstanding publishes when the node is saturated")
+    void shouldWaitForOutstandingPublishesWhenSaturated() throws IOException {
+        sut = newStreamPublisher(1);
+        when(publisher.publishEvent(any(RequestEventDto.class))).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+                () -> PublishedEventDto.builder().success(true).messageId("message-id").build(),
+                CompletableFuture.delayedExecutor(2, TimeUnit.MILLISECONDS)));
+
+        List<PublishedEventDto> results = publish(events(5));
+
+        assertThat(results).hasSize(5).allMatch(PublishedEventDto::success);
+    }
+
+    @Test
+    @DisplayName("Should answer the events before a malformed line and end the stream with an error line")
+    void shouldEndStreamWithErrorLineOnMalformedEvent() throws IOException {
+        when(publisher.publishEvent(any(RequestEventDto.class))).thenAnswer(invocation -> {
+            RequestEventDto event = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(PublishedEventDto.builder().success(true).messageId(event.getId()).build());
+        });
+
+        List<PublishedEventDto> results = publish(events(2) + "\n{\"id\":\"broken\",\n" + events(1));
+
+        assertThat(results).hasSize(3);
+        assertThat(results).extracting(PublishedEventDto::messageId).containsExactly("event-0", "event-1", null);
+        assertThat(results.get(2).success()).isFalse();
+        assertThat(results.get(2).errorReason()).startsWith("Invalid event");
+    }
+
+    private EventStreamPublisher newStreamPublisher(int maxInFlight) {
+        var admissionControl = new EventAdmissionControl(
+                new EventAdmissionProperties(true, maxInFlight, Map.of(), Duration.ofSeconds(1)), new SimpleMeterRegistry());
+        var streamPublisher = new EventStreamPublisher(publisher, admissionControl, objectMapper);
+        streamPublisher.setWindowSize(WINDOW_SIZE);
+        streamPublisher.setFlushEvery(8);
+        return streamPublisher;
+    }
+
+    private List<PublishedEventDto> publish(String ndjson) throws IOException {
+        var output = new ByteArrayOutputStream();
+        sut.publish(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, PublishedEventDto.class);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private static String events(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "{\"id\":\"event-%d\",\"type\":\"STREAM_TEST\",\"payload\":{\"index\":%d}}".formatted(i, i))
+                .collect(Collectors.joining("\n"));
+    }
+}
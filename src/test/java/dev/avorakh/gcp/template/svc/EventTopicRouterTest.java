@@ -0,0 +1,55 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventTopicRouter Tests")
+class EventTopicRouterTest {
+
+    private EventTopicRouter sut;
+
+    @BeforeEach
+    void setUp() {
+        var routes = List.of(
+                new Route("order-*", "orders"),
+                new Route("order-cancelled", "cancellations"),
+                new Route("*-audit", "audit"),
+                new Route("order-*-audit", "never-reached")
+        );
+        sut = new EventTopicRouter(new PubSubPublisherProperties("default-topic", null, null, routes, null));
+    }
+
+    @Test
+    @DisplayName("Should prefer an exact route over wildcard routes")
+    void shouldPreferExactRoute() {
+        assertThat(sut.topicFor("order-cancelled")).isEqualTo("cancellations");
+    }
+
+    @Test
+    @DisplayName("Should use the first matching wildcard route")
+    void shouldUseFirstMatchingWildcardRoute() {
+        assertThat(sut.topicFor("order-created")).isEqualTo("orders");
+        assertThat(sut.topicFor("order-created-audit")).isEqualTo("orders");
+        assertThat(sut.topicFor("user-audit")).isEqualTo("audit");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the default topic")
+    void shouldFallBackToDefaultTopic() {
+        assertThat(sut.topicFor("user-created")).isEqualTo("default-topic");
+        assertThat(sut.topicFor(null)).isEqualTo("default-topic");
+    }
+
+    @Test
+    @DisplayName("Should list the default topic and every routed topic once")
+    void shouldListTopics() {
+        assertThat(sut.topics()).containsExactly("default-topic", "cancellations", "orders", "audit", "never-reached");
+    }
+}
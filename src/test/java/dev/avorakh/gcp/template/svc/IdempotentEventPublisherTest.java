@@ -0,0 +1,233 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotentEventPublisher Tests")
+class IdempotentEventPublisherTest {
+
+    @Mock
+    private EventPublisher delegate;
+
+    @Mock
+    private EventMessageRepository eventMessageRepository;
+
+    private IdempotentEventPublisher sut;
+
+    private RequestEventDto event;
+    private PublishedEventDto published;
+
+    @BeforeEach
+    void setUp() {
+        sut = new IdempotentEventPublisher(delegate, eventMessageRepository, Runnable::run,
+                                           new EventMetrics(new SimpleMeterRegistry()));
+        sut.setMaximumSize(100);
+        sut.setTtl(Duration.ofMinutes(1));
+        sut.setCheckRepository(true);
+        sut.setRepositoryLookback(Duration.ofDays(1));
+        sut.init();
+
+        event = new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+        published = PublishedEventDto.builder().success(true).messageId("test-message-id").build();
+    }
+
+    @Test
+    @DisplayName("Should publish a repeated event id only once")
+    void shouldPublishRepeatedEventIdOnce() {
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class))).thenReturn(List.of());
+        when(delegate.publishEvent(event)).thenReturn(CompletableFuture.completedFuture(published));
+
+        PublishedEventDto first = sut.publishEvent(event).join();
+        PublishedEventDto second = sut.publishEvent(event).join();
+
+        assertThat(first).isEqualTo(published);
+        assertThat(second).isEqualTo(published);
+        verify(delegate, times(1)).publishEvent(event);
+    }
+
+    @Test
+    @DisplayName("Should let concurrent duplicates wait for the in-flight publish")
+    void shouldShareInFlightPublish() {
+        var inFlight = new CompletableFuture<PublishedEventDto>();
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class))).thenReturn(List.of());
+        when(delegate.publishEvent(event)).thenReturn(inFlight);
+
+        CompletableFuture<PublishedEventDto> first = sut.publishEvent(event);
+        CompletableFuture<PublishedEventDto> duplicate = sut.publishEvent(event);
+
+        assertThat(duplicate).isNotDone();
+
+        inFlight.complete(published);
+
+        assertThat(first).isCompletedWithValue(published);
+        assertThat(duplicate).isCompletedWithValue(published);
+        verify(delegate, times(1)).publishEvent(event);
+    }
+
+    @Test
+    @DisplayName("Should answer an event stored in the database without publishing")
+    void shouldAnswerStoredEvent() {
+        var stored = EventMessage.builder()
+                .id(UUID.fromString(event.getId()))
+                .eventType(event.getType())
+                .messageId("stored-message-id")
+                .build();
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class))).thenReturn(List.of(stored));
+
+        PublishedEventDto actual = sut.publishEvent(event).join();
+
+        assertThat(actual.success()).isTrue();
+        assertThat(actual.messageId()).isEqualTo("stored-message-id");
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("Should publish again an event stored as a failed publish in direct mode")
+    void shouldPublishStoredFailureAgainInDirectMode() {
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class)))
+                .thenReturn(List.of(storedWithoutMessageId(Map.of("id", event.getId()))));
+        when(delegate.publishEvent(event)).thenReturn(CompletableFuture.completedFuture(published));
+
+        assertThat(sut.publishEvent(event).join()).isEqualTo(published);
+        verify(delegate).publishEvent(event);
+    }
+
+    @Test
+    @DisplayName("Should answer a spilled event stored without message id as accepted in direct mode")
+    void shouldAnswerSpilledEventAsAccepted() {
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class)))
+                .thenReturn(List.of(storedWithoutMessageId(Map.of("id", event.getId(), EventMessageMapper.SPILLED, true))));
+
+        PublishedEventDto actual = sut.publishEvent(event).join();
+
+        assertThat(actual.success()).isTrue();
+        assertThat(actual.messageId()).isNull();
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("Should answer an outbox event stored without message id as accepted")
+    void shouldAnswerOutboxEventAsAccepted() {
+        sut.setPublishMode("outbox");
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class)))
+                .thenReturn(List.of(storedWithoutMessageId(Map.of("id", event.getId()))));
+
+        PublishedEventDto actual = sut.publishEvent(event).join();
+
+        assertThat(actual.success()).isTrue();
+        assertThat(actual.messageId()).isNull();
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("Should publish again after a failed publish")
+    void shouldRetryFailedPublish() {
+        var failed = PublishedEventDto.builder().errorReason("Topic not found").build();
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class))).thenReturn(List.of());
+        when(delegate.publishEvent(event))
+                .thenReturn(CompletableFuture.completedFuture(failed))
+                .thenReturn(CompletableFuture.completedFuture(published));
+
+        assertThat(sut.publishEvent(event).join()).isEqualTo(failed);
+        assertThat(sut.publishEvent(event).join()).isEqualTo(published);
+        verify(delegate, times(2)).publishEvent(event);
+    }
+
+    @Test
+    @DisplayName("Should skip the database check for ids that are not UUIDs")
+    void shouldSkipRepositoryForNonUuidIds() {
+        var nonUuidEvent = new RequestEventDto("not-a-uuid", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+        when(delegate.publishEvent(nonUuidEvent)).thenReturn(CompletableFuture.completedFuture(published));
+
+        assertThat(sut.publishEvent(nonUuidEvent).join()).isEqualTo(published);
+        verifyNoInteractions(eventMessageRepository);
+    }
+
+    @Test
+    @DisplayName("Should publish only new events of a batch and keep the request order")
+    void shouldPublishOnlyNewEventsOfBatch() {
+        var stored = new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("{\"index\":2}"));
+        var storedMessage = EventMessage.builder()
+                .id(UUID.fromString(stored.getId()))
+                .eventType(stored.getType())
+                .messageId("stored-message-id")
+                .build();
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class))).thenReturn(List.of(storedMessage));
+        when(delegate.publishEvents(List.of(event))).thenReturn(CompletableFuture.completedFuture(List.of(published)));
+
+        List<PublishedEventDto> actual = sut.publishEvents(List.of(event, stored, event)).join();
+
+        assertThat(actual).extracting(PublishedEventDto::messageId)
+                .containsExactly("test-message-id", "stored-message-id", "test-message-id");
+        verify(delegate).publishEvents(List.of(event));
+    }
+
+    @Test
+    @DisplayName("Should fail and forget an event whose repository lookup is rejected, so a retry is not stuck")
+    void shouldFailEventWhenRepositoryLookupIsRejected() {
+        var rejectNext = new AtomicBoolean(true);
+        Executor saturatedOnce = task -> {
+            if (rejectNext.getAndSet(false)) {
+                throw new RejectedExecutionException("post-processing queue is full");
+            }
+            task.run();
+        };
+        sut = new IdempotentEventPublisher(delegate, eventMessageRepository, saturatedOnce,
+                                           new EventMetrics(new SimpleMeterRegistry()));
+        sut.setMaximumSize(100);
+        sut.setTtl(Duration.ofMinutes(1));
+        sut.setCheckRepository(true);
+        sut.setRepositoryLookback(Duration.ofDays(1));
+        sut.init();
+
+        CompletableFuture<PublishedEventDto> rejected = sut.publishEvent(event);
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        verifyNoInteractions(delegate);
+
+        when(eventMessageRepository.findByIdInAndCreatedGreaterThanEqual(anyList(), any(OffsetDateTime.class))).thenReturn(List.of());
+        when(delegate.publishEvent(event)).thenReturn(CompletableFuture.completedFuture(published));
+
+        assertThat(sut.publishEvent(event)).isCompletedWithValue(published);
+    }
+
+    private EventMessage storedWithoutMessageId(Map<String, Object> eventData) {
+        return EventMessage.builder()
+                .id(UUID.fromString(event.getId()))
+                .eventType(event.getType())
+                .eventData(eventData)
+                .build();
+    }
+}
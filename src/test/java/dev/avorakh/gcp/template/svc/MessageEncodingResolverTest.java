@@ -0,0 +1,53 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.config.MessageEncodingProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MessageEncodingResolver Tests")
+class MessageEncodingResolverTest {
+
+    private MessageEncodingResolver sut;
+
+    @BeforeEach
+    void setUp() {
+        var topicRouter = new EventTopicRouter(new PubSubPublisherProperties(
+                "default-events", null, null,
+                List.of(new Route("order-*", "projects/test/topics/order-events")),
+                null));
+        sut = new MessageEncodingResolver(
+                new MessageEncodingProperties(
+                        MessageEncoding.JSON,
+                        Map.of("order-events", MessageEncoding.AVRO),
+                        Map.of("order-audit", MessageEncoding.PROTOBUF)),
+                topicRouter);
+    }
+
+    @Test
+    @DisplayName("Should prefer event type encoding over topic encoding")
+    void shouldPreferEventTypeEncoding() {
+        assertThat(sut.encodingFor("order-audit")).isEqualTo(MessageEncoding.PROTOBUF);
+    }
+
+    @Test
+    @DisplayName("Should use encoding of the routed topic by its short name")
+    void shouldUseTopicEncoding() {
+        assertThat(sut.encodingFor("order-created")).isEqualTo(MessageEncoding.AVRO);
+    }
+
+    @Test
+    @DisplayName("Should fall back to default encoding")
+    void shouldFallBackToDefaultEncoding() {
+        assertThat(sut.encodingFor("user-created")).isEqualTo(MessageEncoding.JSON);
+        assertThat(sut.encodingFor(null)).isEqualTo(MessageEncoding.JSON);
+        assertThat(MessageEncodingResolver.JSON.encodingFor("order-created")).isEqualTo(MessageEncoding.JSON);
+    }
+}
@@ -0,0 +1,41 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Ordering;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OrderingKeyResolver Tests")
+class OrderingKeyResolverTest {
+
+    @Test
+    @DisplayName("Should prefer the explicit ordering key over the payload field")
+    void shouldPreferExplicitOrderingKey() {
+        var sut = new OrderingKeyResolver(new Ordering(true, "customerId"));
+        var event = new RequestEventDto("id", "TEST_EVENT_TYPE", json("{\"customerId\":\"c-1\"}"), "explicit");
+
+        assertThat(sut.resolve(event)).isEqualTo("explicit");
+    }
+
+    @Test
+    @DisplayName("Should derive the ordering key from a payload field or JSON pointer")
+    void shouldDeriveOrderingKeyFromPayload() {
+        var event = new RequestEventDto("id", "TEST_EVENT_TYPE", json("{\"customerId\":42,\"order\":{\"id\":\"o-1\"}}"));
+
+        assertThat(new OrderingKeyResolver(new Ordering(true, "customerId")).resolve(event)).isEqualTo("42");
+        assertThat(new OrderingKeyResolver(new Ordering(true, "/order/id")).resolve(event)).isEqualTo("o-1");
+        assertThat(new OrderingKeyResolver(new Ordering(true, "/order")).resolve(event)).isNull();
+        assertThat(new OrderingKeyResolver(new Ordering(true, "missing")).resolve(event)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not resolve ordering keys when ordering is disabled")
+    void shouldNotResolveWhenDisabled() {
+        var event = new RequestEventDto("id", "TEST_EVENT_TYPE", json("{\"customerId\":\"c-1\"}"), "explicit");
+
+        assertThat(new OrderingKeyResolver(new Ordering(false, "customerId")).resolve(event)).isNull();
+    }
+}
@@ -0,0 +1,104 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxEventPublisher Tests")
+class OutboxEventPublisherTest {
+
+    @Mock
+    private EventMessageRepository eventMessageRepository;
+
+    private OutboxEventPublisher sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new OutboxEventPublisher(eventMessageRepository, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Should store unpublished event message and accept event")
+    void shouldStoreUnpublishedEventMessage() {
+        var event = new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+        ArgumentCaptor<EventMessage> eventMessageCaptor = ArgumentCaptor.forClass(EventMessage.class);
+
+        PublishedEventDto actual = sut.publishEvent(event).join();
+
+        assertThat(actual.success()).isTrue();
+        assertThat(actual.messageId()).isNull();
+        verify(eventMessageRepository).save(eventMessageCaptor.capture());
+        assertThat(eventMessageCaptor.getValue().getId()).isEqualTo(UUID.fromString(event.getId()));
+        assertThat(eventMessageCaptor.getValue().getMessageId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return failure when event message cannot be stored")
+    void shouldReturnFailureWhenStoreFails() {
+        var event = new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+        when(eventMessageRepository.save(any(EventMessage.class))).thenThrow(new IllegalStateException("Database is down"));
+
+        PublishedEventDto actual = sut.publishEvent(event).join();
+
+        assertThat(actual.success()).isFalse();
+        assertThat(actual.errorReason()).isEqualTo("Database is down");
+    }
+
+    @Test
+    @DisplayName("Should store batch of events in one call")
+    @SuppressWarnings("unchecked")
+    void shouldStoreBatchOfEvents() {
+        var events = List.of(
+                new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("\"first\"")),
+                new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("\"second\""))
+        );
+        ArgumentCaptor<List<EventMessage>> eventMessagesCaptor = ArgumentCaptor.forClass(List.class);
+        when(eventMessageRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<PublishedEventDto> actual = sut.publishEvents(events).join();
+
+        assertThat(actual).hasSize(2).allMatch(PublishedEventDto::success);
+        verify(eventMessageRepository).saveAll(eventMessagesCaptor.capture());
+        assertThat(eventMessagesCaptor.getValue()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should copy batch of events once it reaches the copy threshold")
+    @SuppressWarnings("unchecked")
+    void shouldCopyBatchOfEventsOverThreshold() {
+        sut.setCopyThreshold(2);
+        var events = List.of(
+                new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("\"first\"")),
+                new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("\"second\""))
+        );
+        ArgumentCaptor<List<EventMessage>> eventMessagesCaptor = ArgumentCaptor.forClass(List.class);
+        when(eventMessageRepository.copyAll(anyList())).thenReturn(2L);
+
+        List<PublishedEventDto> actual = sut.publishEvents(events).join();
+
+        assertThat(actual).hasSize(2).allMatch(PublishedEventDto::success);
+        verify(eventMessageRepository).copyAll(eventMessagesCaptor.capture());
+        verify(eventMessageRepository, never()).saveAll(anyList());
+        assertThat(eventMessagesCaptor.getValue()).hasSize(2);
+    }
+}
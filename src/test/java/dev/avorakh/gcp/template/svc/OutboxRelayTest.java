@@ -0,0 +1,202 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.pubsub.v1.PubsubMessage;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    private static final String TOPIC = "test-topic";
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @Mock
+    private EventMessageRepository eventMessageRepository;
+
+    @Mock
+    private PubSubPublisherTemplate pubSubPublisherTemplate;
+
+    private OutboxRelay sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = newOutboxRelay(TransactionOperations.withoutTransaction());
+    }
+
+    private OutboxRelay newOutboxRelay(TransactionOperations transactionOperations) {
+        var relay = new OutboxRelay(
+                eventMessageRepository,
+                pubSubPublisherTemplate,
+                new PubsubMessageConverterImpl(new ObjectMapper()),
+                transactionOperations,
+                new ObjectMapper(),
+                new EventTopicRouter(new PubSubPublisherProperties(TOPIC, null, null, null, null))
+        );
+        relay.setBatchSize(2);
+        relay.setPublishTimeoutMs(1000);
+        relay.setLease(LEASE);
+        relay.setLookback(Duration.ofDays(7));
+        return relay;
+    }
+
+    @Test
+    @DisplayName("Should claim pending event messages, publish them and store their message ids")
+    void shouldPublishPendingEventMessages() {
+        var first = pendingEventMessage();
+        var second = pendingEventMessage();
+        when(eventMessageRepository.findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture("message-id-1"))
+                .thenReturn(CompletableFuture.completedFuture("message-id-2"));
+
+        sut.relay();
+
+        verify(eventMessageRepository, times(2)).findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2));
+        verify(eventMessageRepository).claim(eq(List.of(first.getId(), second.getId())), any(OffsetDateTime.class), any(OffsetDateTime.class));
+        verify(eventMessageRepository).markPublished(eq(first.getId()), eq(first.getCreated()), eq("message-id-1"), any(OffsetDateTime.class));
+        verify(eventMessageRepository).markPublished(eq(second.getId()), eq(second.getCreated()), eq("message-id-2"), any(OffsetDateTime.class));
+        assertThat(first.getModified()).isNotEqualTo(first.getCreated());
+    }
+
+    @Test
+    @DisplayName("Should lease claimed event messages for the configured time")
+    void shouldLeaseClaimedEventMessages() {
+        var pending = pendingEventMessage();
+        when(eventMessageRepository.findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2)))
+                .thenReturn(List.of(pending));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.relay();
+
+        ArgumentCaptor<OffsetDateTime> nowCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> claimedUntilCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(eventMessageRepository).findUnclaimedForUpdate(any(OffsetDateTime.class), nowCaptor.capture(), eq(2));
+        verify(eventMessageRepository).claim(any(), any(OffsetDateTime.class), claimedUntilCaptor.capture());
+        assertThat(Duration.between(nowCaptor.getValue(), claimedUntilCaptor.getValue())).isEqualTo(LEASE);
+    }
+
+    @Test
+    @DisplayName("Should publish outside of the claim and mark transactions")
+    void shouldPublishOutsideOfTransactions() {
+        var inTransaction = new AtomicBoolean();
+        var transactions = new AtomicInteger();
+        sut = newOutboxRelay(new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                transactions.incrementAndGet();
+                inTransaction.set(true);
+                try {
+                    return action.doInTransaction(new SimpleTransactionStatus());
+                } finally {
+                    inTransaction.set(false);
+                }
+            }
+        });
+        var pending = pendingEventMessage();
+        when(eventMessageRepository.findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2)))
+                .thenReturn(List.of(pending));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class))).thenAnswer(invocation -> {
+            assertThat(inTransaction).isFalse();
+            return CompletableFuture.completedFuture("message-id");
+        });
+
+        sut.relay();
+
+        verify(pubSubPublisherTemplate).publish(eq(TOPIC), any(PubsubMessage.class));
+        assertThat(transactions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should keep event message unpublished when publish fails")
+    void shouldKeepEventMessageUnpublishedWhenPublishFails() {
+        var failed = pendingEventMessage();
+        var published = pendingEventMessage();
+        when(eventMessageRepository.findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2)))
+                .thenReturn(List.of(failed, published));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Pub/Sub is down")))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.relay();
+
+        verify(eventMessageRepository).markPublished(eq(published.getId()), eq(published.getCreated()), eq("message-id"), any(OffsetDateTime.class));
+        verify(eventMessageRepository, never()).markPublished(eq(failed.getId()), any(), any(), any());
+        assertThat(failed.getMessageId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should publish the rest of the claimed batch when publish of one event message throws")
+    void shouldPublishRestOfBatchWhenPublishThrows() {
+        var failed = pendingEventMessage();
+        var published = pendingEventMessage();
+        when(eventMessageRepository.findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2)))
+                .thenReturn(List.of(failed, published));
+        when(pubSubPublisherTemplate.publish(eq(TOPIC), any(PubsubMessage.class)))
+                .thenThrow(new IllegalStateException("Flow control limit exceeded"))
+                .thenReturn(CompletableFuture.completedFuture("message-id"));
+
+        sut.relay();
+
+        verify(eventMessageRepository).markPublished(eq(published.getId()), eq(published.getCreated()), eq("message-id"), any(OffsetDateTime.class));
+        verify(eventMessageRepository, never()).markPublished(eq(failed.getId()), any(), any(), any());
+        assertThat(failed.getMessageId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should do nothing when there are no pending event messages")
+    void shouldDoNothingWhenNothingIsPending() {
+        when(eventMessageRepository.findUnclaimedForUpdate(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(2)))
+                .thenReturn(List.of());
+
+        sut.relay();
+
+        verify(pubSubPublisherTemplate, never()).publish(any(String.class), any(PubsubMessage.class));
+        verify(eventMessageRepository, never()).claim(any(), any(), any());
+        verify(eventMessageRepository, never()).markPublished(any(), any(), any(), any());
+    }
+
+    private static EventMessage pendingEventMessage() {
+        String id = UUID.randomUUID().toString();
+        return EventMessage.builder()
+                .id(UUID.fromString(id))
+                .eventType("OUTBOX_EVENT")
+                .eventData(Map.of("id", id, "type", "OUTBOX_EVENT", "payload", Map.of("key", "value")))
+                .created(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
+                .modified(OffsetDateTime.parse("2024-01-01T00:00:00Z"))
+                .build();
+    }
+}
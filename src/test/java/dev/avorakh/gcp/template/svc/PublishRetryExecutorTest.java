@@ -0,0 +1,160 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import dev.avorakh.gcp.template.config.PublishRetryProperties;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.avorakh.gcp.template.svc.PublishRetryExecutor.EXHAUSTED_COUNTER;
+import static dev.avorakh.gcp.template.svc.PublishRetryExecutor.RETRIES_COUNTER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PublishRetryExecutor Tests")
+class PublishRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger attempts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        attempts = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should retry UNAVAILABLE until the publish succeeds")
+    void shouldRetryUnavailableUntilSuccess() throws Exception {
+        var sut = newExecutor(4, Duration.ofSeconds(10), new PublishRetryProperties.Budget(0.1, 10, 100));
+
+        String actual = sut.execute(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.<String>failedFuture(Status.UNAVAILABLE.asRuntimeException())
+                : CompletableFuture.completedFuture("message-id"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(actual).isEqualTo("message-id");
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.counter(RETRIES_COUNTER, "code", "UNAVAILABLE").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should classify gax API exceptions by their gRPC status code")
+    void shouldClassifyApiExceptions() {
+        var exception = ApiExceptionFactory.createException(
+                new RuntimeException("unavailable"), GrpcStatusCode.of(Status.Code.UNAVAILABLE), true);
+
+        assertThat(PublishRetryExecutor.statusCode(exception)).isEqualTo(Status.Code.UNAVAILABLE);
+        assertThat(PublishRetryExecutor.statusCode(new IllegalStateException())).isEqualTo(Status.Code.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Should not retry non-retryable status codes")
+    void shouldNotRetryNonRetryableCodes() {
+        var sut = newExecutor(4, Duration.ofSeconds(10), new PublishRetryProperties.Budget(0.1, 10, 100));
+
+        CompletableFuture<String> actual = sut.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(Status.INVALID_ARGUMENT.asRuntimeException());
+        });
+
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum number of attempts")
+    void shouldGiveUpAfterMaxAttempts() {
+        var sut = newExecutor(3, Duration.ofSeconds(10), new PublishRetryProperties.Budget(0.1, 10, 100));
+
+        CompletableFuture<String> actual = sut.execute(this::unavailable);
+
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.counter(EXHAUSTED_COUNTER, "reason", "attempts").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stop retrying when the retry budget is used up")
+    void shouldStopRetryingWhenBudgetIsUsedUp() {
+        var sut = newExecutor(10, Duration.ofSeconds(10), new PublishRetryProperties.Budget(0, 0, 2));
+
+        CompletableFuture<String> actual = sut.execute(this::unavailable);
+
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(meterRegistry.counter(EXHAUSTED_COUNTER, "reason", "budget").count()).isEqualTo(1);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not start a retry after the deadline")
+    void shouldNotRetryAfterDeadline() {
+        var sut = newExecutor(10, Duration.ZERO, new PublishRetryProperties.Budget(0.1, 10, 100));
+
+        CompletableFuture<String> actual = sut.execute(this::unavailable);
+
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.counter(EXHAUSTED_COUNTER, "reason", "deadline").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail an attempt that is still running at the deadline with DEADLINE_EXCEEDED")
+    void shouldTimeOutAttemptAtDeadline() {
+        var sut = newExecutor(10, Duration.ofMillis(50), new PublishRetryProperties.Budget(0.1, 10, 100));
+
+        CompletableFuture<String> actual = sut.execute(() -> {
+            attempts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .satisfies(cause -> assertThat(Status.fromThrowable(cause).getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.counter(EXHAUSTED_COUNTER, "reason", "deadline").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should bound a retry by the time left until the deadline")
+    void shouldTimeOutRetryAtDeadline() {
+        var sut = newExecutor(10, Duration.ofMillis(200), new PublishRetryProperties.Budget(0.1, 10, 100));
+
+        CompletableFuture<String> actual = sut.execute(() -> attempts.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException())
+                : new CompletableFuture<>());
+
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.counter(EXHAUSTED_COUNTER, "reason", "deadline").count()).isEqualTo(1);
+    }
+
+    private CompletableFuture<String> unavailable() {
+        attempts.incrementAndGet();
+        return CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException());
+    }
+
+    private PublishRetryExecutor newExecutor(int maxAttempts, Duration deadline, PublishRetryProperties.Budget budget) {
+        var properties = new PublishRetryProperties(
+                true,
+                maxAttempts,
+                Duration.ofMillis(1),
+                Duration.ofMillis(10),
+                2.0,
+                deadline,
+                Set.of(Status.Code.UNAVAILABLE),
+                budget);
+        return new PublishRetryExecutor(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,152 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PublishedEventPostProcessorChain Tests")
+class PublishedEventPostProcessorChainTest {
+
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private final Executor deferredExecutor = backgroundTasks::add;
+    private final List<String> invocations = new CopyOnWriteArrayList<>();
+
+    private RequestEventDto event;
+    private PublishedEventDto success;
+    private PublishedEventDto failure;
+
+    @BeforeEach
+    void setUp() {
+        event = new RequestEventDto("test-event-id", "CHAIN_TEST", json("{\"data\":\"test\"}"));
+        success = PublishedEventDto.builder().success(true).messageId("test-message-id").build();
+        failure = PublishedEventDto.builder().errorReason("Topic not found").build();
+    }
+
+    @Test
+    @DisplayName("Should run sync stages in order and pass the result along")
+    void shouldRunSyncStagesInOrder() {
+
+        var sut = new PublishedEventPostProcessorChain(List.of(
+                stage("first", false, PublishedEventPostProcessor.Scope.ALL),
+                stage("second", false, PublishedEventPostProcessor.Scope.ALL)
+        ), Runnable::run);
+
+        PublishedEventDto result = sut.process(event, success).join();
+
+        assertThat(invocations).containsExactly("first", "second");
+        assertThat(result.messageId()).isEqualTo("test-message-id:first:second");
+    }
+
+    @Test
+    @DisplayName("Should complete without waiting for async stages")
+    void shouldCompleteWithoutWaitingForAsyncStages() {
+
+        var sut = new PublishedEventPostProcessorChain(List.of(
+                stage("audit", true, PublishedEventPostProcessor.Scope.ALL)
+        ), deferredExecutor);
+
+        CompletableFuture<PublishedEventDto> result = sut.process(event, success);
+
+        assertThat(result).isCompletedWithValue(success);
+        assertThat(invocations).isEmpty();
+
+        backgroundTasks.forEach(Runnable::run);
+
+        assertThat(invocations).containsExactly("audit");
+    }
+
+    @Test
+    @DisplayName("Should skip stages whose scope does not match the publish result")
+    void shouldSkipStagesOutOfScope() {
+
+        var sut = new PublishedEventPostProcessorChain(List.of(
+                stage("on-success", false, PublishedEventPostProcessor.Scope.SUCCESS),
+                stage("on-failure", false, PublishedEventPostProcessor.Scope.FAILURE)
+        ), Runnable::run);
+
+        sut.process(event, failure).join();
+
+        assertThat(invocations).containsExactly("on-failure");
+    }
+
+    @Test
+    @DisplayName("Should not fail the response when an async stage fails")
+    void shouldIgnoreAsyncStageFailure() throws Exception {
+
+        PublishedEventPostProcessor failing = new PublishedEventPostProcessor() {
+            @Override
+            public PublishedEventDto process(RequestEventDto event, PublishedEventDto publishedEventDto) {
+                throw new IllegalStateException("Unable to audit event");
+            }
+
+            @Override
+            public boolean isAsync() {
+                return true;
+            }
+        };
+        var sut = new PublishedEventPostProcessorChain(List.of(failing, stage("save", false, PublishedEventPostProcessor.Scope.ALL)),
+                                                       Runnable::run);
+
+        PublishedEventDto result = sut.process(event, success).get(1, TimeUnit.SECONDS);
+
+        assertThat(result.success()).isTrue();
+        assertThat(invocations).containsExactly("save");
+    }
+
+    @Test
+    @DisplayName("Should fail the stage when the post-processing executor rejects it")
+    void shouldFailStageWhenExecutorRejectsIt() {
+
+        Executor saturatedExecutor = task -> {
+            throw new RejectedExecutionException("Post-processing queue is full");
+        };
+        var sut = new PublishedEventPostProcessorChain(List.of(
+                stage("audit", true, PublishedEventPostProcessor.Scope.ALL),
+                stage("save", false, PublishedEventPostProcessor.Scope.ALL)
+        ), saturatedExecutor);
+
+        CompletableFuture<PublishedEventDto> result = sut.process(event, success);
+
+        assertThat(result).isCompletedExceptionally();
+        assertThatThrownBy(result::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(invocations).isEmpty();
+    }
+
+    private PublishedEventPostProcessor stage(String name, boolean async, PublishedEventPostProcessor.Scope scope) {
+        return new PublishedEventPostProcessor() {
+            @Override
+            public PublishedEventDto process(RequestEventDto event, PublishedEventDto publishedEventDto) {
+                invocations.add(name);
+                return PublishedEventDto.builder()
+                        .success(publishedEventDto.success())
+                        .messageId(publishedEventDto.messageId() + ":" + name)
+                        .errorReason(publishedEventDto.errorReason())
+                        .build();
+            }
+
+            @Override
+            public boolean isAsync() {
+                return async;
+            }
+
+            @Override
+            public Scope scope() {
+                return scope;
+            }
+        };
+    }
+}
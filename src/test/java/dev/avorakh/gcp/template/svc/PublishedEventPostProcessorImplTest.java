@@ -1,9 +1,13 @@
 package dev.avorakh.gcp.template.svc;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.EventMessageDto;
 import dev.avorakh.gcp.template.model.PublishedEventDto;
 import dev.avorakh.gcp.template.model.RequestEventDto;
 import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,13 +15,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.UUID;
 
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +38,12 @@ class PublishedEventPostProcessorImplTest {
     @Mock
     private EventMessageRepository eventMessageRepository;
 
+    @Spy
+    private EventMetrics eventMetrics = new EventMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private EventMessageCache eventMessageCache = new EventMessageCache(new SimpleMeterRegistry());
+
     @InjectMocks
     private PublishedEventPostProcessorImpl sut;
 
@@ -35,18 +51,21 @@ class PublishedEventPostProcessorImplTest {
     private PublishedEventDto publishedEventDto;
     private String testEventId;
     private String testEventType;
-    private String testPayload;
+    private JsonNode testPayload;
     private String testMessageId;
 
     @BeforeEach
     void setUp() {
+        eventMessageCache.setMaximumSize(100);
+        eventMessageCache.setTtl(Duration.ofMinutes(1));
+        eventMessageCache.init();
         testEventId = UUID.randomUUID().toString();
         testEventType = "TEST_EVENT_TYPE";
-        testPayload = """
+        testPayload = json("""
                 {
                     "key":"value"
                 }
-                """;
+                """);
         testMessageId = "test-message-id-123";
 
         requestEventDto = new RequestEventDto(testEventId, testEventType, testPayload);
@@ -105,5 +124,32 @@ class PublishedEventPostProcessorImplTest {
 
         verify(eventMessageRepository).save(any(EventMessage.class));
     }
-}
 
+    @Test
+    @DisplayName("Should cache published event after saving it")
+    void shouldCachePublishedEvent() {
+        when(eventMessageRepository.save(any(EventMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        sut.process(requestEventDto, publishedEventDto);
+
+        assertThat(eventMessageCache.getById(UUID.fromString(testEventId))).get()
+                .extracting(EventMessageDto :: messageId)
+                .isEqualTo(testMessageId);
+        assertThat(eventMessageCache.getByMessageId(testMessageId)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should treat a duplicate insert as already stored")
+    void shouldTreatDuplicateInsertAsAlreadyStored() {
+        when(eventMessageRepository.save(any(EventMessage.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        PublishedEventDto result = sut.process(requestEventDto, publishedEventDto);
+
+        assertThat(result).isSameAs(publishedEventDto);
+        assertThat(eventMessageCache.getById(UUID.fromString(testEventId))).isEmpty();
+        verify(eventMetrics).recordDuplicate("insert");
+        verify(eventMessageRepository).updateMissingMessageId(eq(UUID.fromString(testEventId)), eq(testMessageId),
+                                                              any(OffsetDateTime.class));
+    }
+}
@@ -0,0 +1,154 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Value;
+import com.google.pubsub.v1.PubsubMessage;
+import dev.avorakh.gcp.template.config.MessageEncodingProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties;
+import dev.avorakh.gcp.template.config.PubSubPublisherProperties.Ordering;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+
+@DisplayName("PubsubMessageConverterImpl Tests")
+class PubsubMessageConverterImplTest {
+
+    private static final String PAYLOAD = """
+            {"key":"value","count":3,"flag":true,"items":[1.5,null],"nested":{"name":"n"}}
+            """;
+
+    private ObjectMapper objectMapper;
+    private PubsubMessageConverterImpl sut;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        sut = new PubsubMessageConverterImpl(objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should put event id and type into attributes and event JSON into data")
+    void shouldConvertEventToPubsubMessage() throws IOException {
+        var event = new RequestEventDto("test-event-id", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+
+        PubsubMessage actual = sut.toPubsubMessage(event);
+
+        assertThat(actual.getAttributesMap())
+                .containsEntry("eventId", "test-event-id")
+                .containsEntry("eventType", "TEST_EVENT_TYPE");
+
+        JsonNode data = objectMapper.readTree(actual.getData().toByteArray());
+        assertThat(data.get("id").asText()).isEqualTo("test-event-id");
+        assertThat(data.get("type").asText()).isEqualTo("TEST_EVENT_TYPE");
+        assertThat(data.get("payload")).isEqualTo(json("{\"key\":\"value\"}"));
+    }
+
+    @Test
+    @DisplayName("Should put exactly the event JSON bytes into data")
+    void shouldPutEventJsonBytesIntoData() {
+        var event = new RequestEventDto("test-event-id", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+
+        PubsubMessage actual = sut.toPubsubMessage(event);
+
+        assertThat(actual.getData().toByteArray()).isEqualTo(sut.toJsonBytes(event));
+        assertThat(actual.getOrderingKey()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should set the resolved ordering key when ordering is enabled")
+    void shouldSetOrderingKey() {
+        sut = new PubsubMessageConverterImpl(objectMapper, new OrderingKeyResolver(new Ordering(true, "customerId")));
+        var event = new RequestEventDto("test-event-id", "TEST_EVENT_TYPE", json("{\"customerId\":\"c-1\"}"));
+
+        PubsubMessage actual = sut.toPubsubMessage(event);
+
+        assertThat(actual.getOrderingKey()).isEqualTo("c-1");
+    }
+
+    @Test
+    @DisplayName("Should send content type of JSON encoding without schema")
+    void shouldSendJsonContentType() {
+        var event = new RequestEventDto("test-event-id", "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+
+        PubsubMessage actual = sut.toPubsubMessage(event);
+
+        assertThat(actual.getAttributesMap())
+                .containsEntry(PubsubMessageConverterImpl.CONTENT_TYPE_ATTRIBUTE, "application/json")
+                .doesNotContainKey(PubsubMessageConverterImpl.SCHEMA_ATTRIBUTE);
+    }
+
+    @Test
+    @DisplayName("Should encode payload as protobuf Value")
+    void shouldEncodePayloadAsProtobuf() throws IOException {
+        sut = encodingConverter(MessageEncoding.PROTOBUF);
+        var event = new RequestEventDto("test-event-id", "TEST_EVENT_TYPE", json(PAYLOAD));
+
+        PubsubMessage actual = sut.toPubsubMessage(event);
+
+        assertThat(actual.getAttributesMap())
+                .containsEntry("eventId", "test-event-id")
+                .containsEntry(PubsubMessageConverterImpl.CONTENT_TYPE_ATTRIBUTE, "application/protobuf")
+                .containsEntry(PubsubMessageConverterImpl.SCHEMA_ATTRIBUTE, "google.protobuf.Value");
+        Map<String, Value> data = Value.parseFrom(actual.getData()).getStructValue().getFieldsMap();
+        assertThat(data.get("key").getStringValue()).isEqualTo("value");
+        assertThat(data.get("count").getNumberValue()).isEqualTo(3.0);
+        assertThat(data.get("flag").getBoolValue()).isTrue();
+        assertThat(data.get("items").getListValue().getValuesList())
+                .extracting(Value :: getKindCase)
+                .containsExactly(Value.KindCase.NUMBER_VALUE, Value.KindCase.NULL_VALUE);
+        assertThat(data.get("nested").getStructValue().getFieldsMap().get("name").getStringValue()).isEqualTo("n");
+    }
+
+    @Test
+    @DisplayName("Should encode payload as Avro binary of the JsonValue schema")
+    void shouldEncodePayloadAsAvro() throws IOException {
+        sut = encodingConverter(MessageEncoding.AVRO);
+        var event = new RequestEventDto("test-event-id", "TEST_EVENT_TYPE", json(PAYLOAD));
+
+        PubsubMessage actual = sut.toPubsubMessage(event);
+
+        assertThat(actual.getAttributesMap())
+                .containsEntry(PubsubMessageConverterImpl.CONTENT_TYPE_ATTRIBUTE, "avro/binary")
+                .containsEntry(PubsubMessageConverterImpl.SCHEMA_ATTRIBUTE, AvroPayloadEncoder.SCHEMA.getFullName());
+        GenericRecord data = new GenericDatumReader<GenericRecord>(AvroPayloadEncoder.SCHEMA)
+                .read(null, DecoderFactory.get().binaryDecoder(actual.getData().toByteArray(), null));
+        Map<?, ?> payload = (Map<?, ?>) data.get("value");
+        assertThat(payload).hasSize(5);
+        assertThat(value(payload, "key")).hasToString("value");
+        assertThat(value(payload, "count")).isEqualTo(3L);
+        assertThat(value(payload, "flag")).isEqualTo(true);
+        assertThat((List<?>) value(payload, "items")).extracting(item -> ((GenericRecord) item).get("value"))
+                .containsExactly(1.5, null);
+        assertThat(actual.getData().size()).isLessThan(sut.toJsonBytes(event).length);
+    }
+
+    private PubsubMessageConverterImpl encodingConverter(MessageEncoding encoding) {
+        return new PubsubMessageConverterImpl(
+                objectMapper,
+                OrderingKeyResolver.DISABLED,
+                new MessageEncodingResolver(
+                        new MessageEncodingProperties(encoding, null, null),
+                        new EventTopicRouter(new PubSubPublisherProperties("test-topic", null, null, null, null))));
+    }
+
+    private static Object value(Map<?, ?> map, String key) {
+        return map.entrySet().stream()
+                .filter(entry -> entry.getKey().toString().equals(key))
+                .map(entry -> ((GenericRecord) entry.getValue()).get("value"))
+                .findFirst()
+                .orElseThrow();
+    }
+}
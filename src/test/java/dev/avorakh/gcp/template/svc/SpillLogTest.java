@@ -0,0 +1,109 @@
+package dev.avorakh.gcp.template.svc;
+
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SpillLog Tests")
+class SpillLogTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should read appended messages in order until they are committed")
+    void shouldReadAppendedMessagesUntilCommitted() {
+        try (var sut = new SpillLog(directory, SEGMENT_SIZE)) {
+            sut.append("topic-a", message("first"));
+            sut.append("topic-b", message("second"));
+
+            List<SpillLog.Entry> actual = sut.read(10);
+
+            assertThat(actual).extracting(SpillLog.Entry :: topic).containsExactly("topic-a", "topic-b");
+            assertThat(actual).extracting(entry -> entry.message().getData().toStringUtf8()).containsExactly("first", "second");
+            assertThat(sut.read(10)).hasSize(2);
+
+            sut.commit(actual.subList(0, 1));
+
+            assertThat(sut.read(10)).extracting(SpillLog.Entry :: topic).containsExactly("topic-b");
+            assertThat(sut.backlog()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments and delete drained ones")
+    void shouldRollOverSegmentsAndDeleteDrainedOnes() throws IOException {
+        try (var sut = new SpillLog(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 20; i++) {
+                sut.append("topic", message("message-" + i));
+            }
+            assertThat(segments()).hasSizeGreaterThan(1);
+
+            List<SpillLog.Entry> actual = sut.read(100);
+            assertThat(actual).hasSize(20);
+            assertThat(actual.getLast().message().getData().toStringUtf8()).isEqualTo("message-19");
+
+            sut.commit(actual);
+
+            assertThat(sut.backlog()).isZero();
+            assertThat(sut.backlogBytes()).isZero();
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover the backlog from the committed position after a restart")
+    void shouldRecoverBacklogAfterRestart() {
+        try (var sut = new SpillLog(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                sut.append("topic", message("message-" + i));
+            }
+            sut.commit(sut.read(4));
+        }
+
+        try (var sut = new SpillLog(directory, SEGMENT_SIZE)) {
+            assertThat(sut.backlog()).isEqualTo(6);
+            assertThat(sut.read(1).getFirst().message().getData().toStringUtf8()).isEqualTo("message-4");
+
+            sut.append("topic", message("after-restart"));
+
+            assertThat(sut.read(100).getLast().message().getData().toStringUtf8()).isEqualTo("after-restart");
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a message larger than a segment")
+    void shouldRejectMessageLargerThanSegment() {
+        try (var sut = new SpillLog(directory, SEGMENT_SIZE)) {
+            assertThatThrownBy(() -> sut.append("topic", message("x".repeat(SEGMENT_SIZE))))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(sut.backlog()).isZero();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SpillLog.SEGMENT_PREFIX)).toList();
+        }
+    }
+
+    private static PubsubMessage message(String data) {
+        return PubsubMessage.newBuilder()
+                .setData(ByteString.copyFromUtf8(data))
+                .putAttributes("eventType", "TEST_EVENT_TYPE")
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package dev.avorakh.gcp.template.svc;
+
+import dev.avorakh.gcp.template.entity.EventMessage;
+import dev.avorakh.gcp.template.metrics.EventMetrics;
+import dev.avorakh.gcp.template.model.PublishedEventDto;
+import dev.avorakh.gcp.template.model.RequestEventDto;
+import dev.avorakh.gcp.template.repository.EventMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static dev.avorakh.gcp.template.test.JsonTestUtil.json;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WriteBehindPublishedEventPostProcessor Tests")
+class WriteBehindPublishedEventPostProcessorTest {
+
+    @Mock
+    private EventMessageRepository eventMessageRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private WriteBehindPublishedEventPostProcessor sut;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PublishedEventDto publishedEventDto;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new WriteBehindPublishedEventPostProcessor(eventMessageRepository, taskScheduler, new EventMetrics(meterRegistry));
+        sut.setBatchSize(2);
+        sut.setCapacity(3);
+        sut.init();
+
+        publishedEventDto = PublishedEventDto.builder()
+                .success(true)
+                .messageId("test-message-id")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should buffer event message without saving it")
+    void shouldBufferEventMessage() {
+
+        PublishedEventDto result = sut.process(newEvent(), publishedEventDto);
+
+        assertThat(result).isSameAs(publishedEventDto);
+        assertThat(sut.bufferedCount()).isEqualTo(1);
+        verifyNoInteractions(eventMessageRepository, taskScheduler);
+    }
+
+    @Test
+    @DisplayName("Should request flush once batch size is reached")
+    void shouldRequestFlushWhenBatchSizeReached() {
+
+        sut.process(newEvent(), publishedEventDto);
+        sut.process(newEvent(), publishedEventDto);
+
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        verify(eventMessageRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should save buffered event messages in batches on flush")
+    @SuppressWarnings("unchecked")
+    void shouldSaveBufferedEventMessagesInBatches() {
+        ArgumentCaptor<Iterable<EventMessage>> batchCaptor = ArgumentCaptor.forClass(Iterable.class);
+
+        sut.process(newEvent(), publishedEventDto);
+        sut.process(newEvent(), publishedEventDto);
+        sut.process(newEvent(), publishedEventDto);
+
+        sut.flush();
+
+        verify(eventMessageRepository, times(2)).saveAll(batchCaptor.capture());
+        assertThat(batchCaptor.getAllValues().get(0)).hasSize(2);
+        assertThat(batchCaptor.getAllValues().get(1)).hasSize(1);
+        assertThat(sut.bufferedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should save event message synchronously when buffer is full")
+    void shouldSaveSynchronouslyWhenBufferIsFull() {
+
+        sut.process(newEvent(), publishedEventDto);
+        sut.process(newEvent(), publishedEventDto);
+        sut.process(newEvent(), publishedEventDto);
+
+        RequestEventDto overflowEvent = newEvent();
+        sut.process(overflowEvent, publishedEventDto);
+
+        ArgumentCaptor<EventMessage> eventMessageCaptor = ArgumentCaptor.forClass(EventMessage.class);
+        verify(eventMessageRepository).save(eventMessageCaptor.capture());
+        assertThat(eventMessageCaptor.getValue().getId()).isEqualTo(UUID.fromString(overflowEvent.getId()));
+        assertThat(sut.bufferedCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should save rows one by one and count lost rows when the batch fails")
+    void shouldSaveRowsOneByOneWhenBatchFails() {
+
+        RequestEventDto goodEvent = newEvent();
+        RequestEventDto badEvent = newEvent();
+        sut.process(goodEvent, publishedEventDto);
+        sut.process(badEvent, publishedEventDto);
+
+        when(eventMessageRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("bad row"));
+        when(eventMessageRepository.save(any(EventMessage.class))).thenAnswer(invocation -> {
+            EventMessage eventMessage = invocation.getArgument(0);
+            if (eventMessage.getId().equals(UUID.fromString(badEvent.getId()))) {
+                throw new DataAccessResourceFailureException("connection reset");
+            }
+            return eventMessage;
+        });
+
+        sut.flush();
+
+        verify(eventMessageRepository, times(2)).save(any(EventMessage.class));
+        assertThat(meterRegistry.get(EventMetrics.PERSISTENCE_LOST_COUNTER).tag("mode", "write-behind").counter().count())
+                .isEqualTo(1.0);
+        assertThat(sut.bufferedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should treat an already stored row of a failed batch as a duplicate, not as lost")
+    void shouldNotCountDuplicateRowAsLost() {
+
+        RequestEventDto newEvent = newEvent();
+        RequestEventDto retriedEvent = newEvent();
+        sut.process(newEvent, publishedEventDto);
+        sut.process(retriedEvent, publishedEventDto);
+
+        when(eventMessageRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(eventMessageRepository.save(any(EventMessage.class))).thenAnswer(invocation -> {
+            EventMessage eventMessage = invocation.getArgument(0);
+            if (eventMessage.getId().equals(UUID.fromString(retriedEvent.getId()))) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return eventMessage;
+        });
+
+        sut.flush();
+
+        verify(eventMessageRepository).updateMissingMessageId(eq(UUID.fromString(retriedEvent.getId())),
+                                                              eq("test-message-id"), any());
+        assertThat(meterRegistry.find(EventMetrics.PERSISTENCE_LOST_COUNTER).counter()).isNull();
+        assertThat(meterRegistry.get(EventMetrics.DEDUPLICATED_COUNTER).tag("source", "insert").counter().count())
+                .isEqualTo(1.0);
+        assertThat(sut.bufferedCount()).isZero();
+    }
+
+    private static RequestEventDto newEvent() {
+        return new RequestEventDto(UUID.randomUUID().toString(), "TEST_EVENT_TYPE", json("{\"key\":\"value\"}"));
+    }
+}
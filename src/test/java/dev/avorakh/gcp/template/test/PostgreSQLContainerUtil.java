@@ -31,7 +31,7 @@ public class PostgreSQLContainerUtil {
         registry.add("spring.datasource.username", container :: getUsername);
         registry.add("spring.datasource.password", container :: getPassword);
         registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
-        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
     }
 
     public void configureDDLGenerationProperties(DynamicPropertyRegistry registry, String ddlAuto) {
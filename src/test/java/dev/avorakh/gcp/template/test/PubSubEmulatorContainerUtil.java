@@ -19,6 +19,7 @@ import com.google.cloud.pubsub.v1.Publisher;
 import com.google.cloud.pubsub.v1.TopicAdminClient;
 import com.google.cloud.pubsub.v1.TopicAdminSettings;
 import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.cloud.spring.pubsub.support.PublisherCustomizer;
 import com.google.cloud.spring.pubsub.support.PublisherFactory;
 import com.google.pubsub.v1.TopicName;
 
@@ -65,6 +66,11 @@ public class PubSubEmulatorContainerUtil {
     }
 
     public PubSubPublisherTemplate createPubSubPublisherTemplate(PubSubEmulatorContainer emulator) {
+        return createPubSubPublisherTemplate(emulator, (publisherBuilder, topicName) -> {
+        });
+    }
+
+    public PubSubPublisherTemplate createPubSubPublisherTemplate(PubSubEmulatorContainer emulator, PublisherCustomizer customizer) {
         String hostport = emulator.getEmulatorEndpoint();
 
         var channel = ManagedChannelBuilder.forTarget(hostport).usePlaintext().build();
@@ -74,10 +80,11 @@ public class PubSubEmulatorContainerUtil {
         PublisherFactory publisherFactory = topicName -> {
             try {
                 TopicName topic = TopicName.of(PROJECT_ID, topicName);
-                return Publisher.newBuilder(topic)
+                var publisherBuilder = Publisher.newBuilder(topic)
                         .setChannelProvider(channelProvider)
-                        .setCredentialsProvider(NoCredentialsProvider.create())
-                        .build();
+                        .setCredentialsProvider(NoCredentialsProvider.create());
+                customizer.apply(publisherBuilder, topicName);
+                return publisherBuilder.build();
             }
             catch (IOException e) {
                 throw new RuntimeException("Failed to create publisher", e);